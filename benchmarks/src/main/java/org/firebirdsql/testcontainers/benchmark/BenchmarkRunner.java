@@ -0,0 +1,39 @@
+package org.firebirdsql.testcontainers.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks, writing the results as JSON.
+ * <p>
+ * Accepts the standard JMH command line options. Unless specified otherwise with {@code -rf} and {@code -rff}, the
+ * results are written in JSON format to {@code jmh-result.json}. Use {@code -p imageName=<image>} to run against a
+ * different image, e.g. {@code -p imageName=firebirdsql/firebird:4.0.6,firebirdsql/firebird:5.0.3}.
+ * </p>
+ */
+public final class BenchmarkRunner {
+
+    static final String DEFAULT_IMAGE = "firebirdsql/firebird:5.0.3";
+    private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    private BenchmarkRunner() {
+        throw new AssertionError("no instances");
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLineOptions);
+        if (!commandLineOptions.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLineOptions.getResult().hasValue()) {
+            options.result(DEFAULT_RESULT_FILE);
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,95 @@
+package org.firebirdsql.testcontainers.benchmark;
+
+import org.firebirdsql.testcontainers.FirebirdContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures establishing (and closing) a Jaybird connection to a running container.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ConnectionBenchmark {
+
+    /**
+     * Connection configurations.
+     */
+    public enum ConnectionMode {
+        /**
+         * Default container configuration: Srp256 authentication, wire encryption required.
+         */
+        ENCRYPTED,
+        /**
+         * {@link FirebirdContainer#withEnableWireCrypt()}: Srp256 authentication, encryption disabled by the client.
+         */
+        UNENCRYPTED,
+        /**
+         * {@link FirebirdContainer#withEnableLegacyClientAuth()}: legacy authentication, without encryption.
+         */
+        LEGACY_AUTH,
+    }
+
+    @Param(BenchmarkRunner.DEFAULT_IMAGE)
+    public String imageName;
+
+    @Param({ "ENCRYPTED", "UNENCRYPTED", "LEGACY_AUTH" })
+    public ConnectionMode connectionMode;
+
+    private FirebirdContainer container;
+    private String jdbcUrl;
+
+    @Setup(Level.Trial)
+    public void startContainer() {
+        container = new FirebirdContainer(imageName);
+        switch (connectionMode) {
+        case ENCRYPTED:
+            break;
+        case UNENCRYPTED:
+            container.withEnableWireCrypt()
+                    .withUrlParam("wireCrypt", "DISABLED");
+            break;
+        case LEGACY_AUTH:
+            container.withEnableLegacyClientAuth()
+                    .withUrlParam("authPlugins", "Legacy_Auth")
+                    .withUrlParam("wireCrypt", "DISABLED");
+            break;
+        }
+        container.start();
+        jdbcUrl = container.getJdbcUrl();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContainer() {
+        container.stop();
+    }
+
+    @Benchmark
+    public void connect() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(
+                jdbcUrl, container.getUsername(), container.getPassword())) {
+            if (connection.isClosed()) {
+                throw new IllegalStateException("Connection closed");
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.firebirdsql.testcontainers.benchmark;
+
+import org.firebirdsql.testcontainers.FirebirdContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time of {@link FirebirdContainer#start()}.
+ * <p>
+ * The <em>cold</em> benchmark measures the first start in a fresh JVM, which includes initialization of
+ * Testcontainers (Docker client, Ryuk) and the JDBC driver. The <em>warm</em> benchmark measures subsequent starts.
+ * Both assume the image is already available locally; pull it before running the benchmark.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ContainerStartupBenchmark {
+
+    @Param(BenchmarkRunner.DEFAULT_IMAGE)
+    public String imageName;
+
+    private FirebirdContainer container;
+
+    @Setup(Level.Invocation)
+    public void createContainer() {
+        container = new FirebirdContainer(imageName);
+    }
+
+    @TearDown(Level.Invocation)
+    public void stopContainer() {
+        container.stop();
+    }
+
+    @Benchmark
+    @Fork(5)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public FirebirdContainer coldStart() {
+        container.start();
+        return container;
+    }
+
+    @Benchmark
+    @Fork(1)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 10)
+    public FirebirdContainer warmStart() {
+        container.start();
+        return container;
+    }
+}
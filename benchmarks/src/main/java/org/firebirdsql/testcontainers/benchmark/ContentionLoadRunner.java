@@ -0,0 +1,73 @@
+package org.firebirdsql.testcontainers.benchmark;
+
+import org.firebirdsql.testcontainers.FirebirdContainer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Runs a {@link LoadGenerator} workload which updates a small set of hot rows, to reproduce update conflicts and lock
+ * contention.
+ * <p>
+ * Usage: {@code ContentionLoadRunner [sessions [seconds [hotRows [imageName]]]]}, with defaults 1000 sessions,
+ * 30 seconds, 10 hot rows and {@value BenchmarkRunner#DEFAULT_IMAGE}. Each transaction updates one random hot row,
+ * and inserts a row into a history table.
+ * </p>
+ */
+public final class ContentionLoadRunner {
+
+    private ContentionLoadRunner() {
+        throw new AssertionError("no instances");
+    }
+
+    public static void main(String[] args) throws SQLException, InterruptedException {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int hotRows = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        String imageName = args.length > 3 ? args[3] : BenchmarkRunner.DEFAULT_IMAGE;
+
+        try (FirebirdContainer container = new FirebirdContainer(imageName)) {
+            container.start();
+            try (Connection connection = container.createConnection("");
+                 Statement statement = connection.createStatement()) {
+                statement.execute("create table hot_counter (id integer primary key, val bigint not null)");
+                statement.execute("create table counter_history ("
+                        + "id bigint generated by default as identity primary key, "
+                        + "counter_id integer not null, session_id integer not null)");
+                connection.setAutoCommit(false);
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "insert into hot_counter (id, val) values (?, 0)")) {
+                    for (int id = 0; id < hotRows; id++) {
+                        insert.setInt(1, id);
+                        insert.executeUpdate();
+                    }
+                }
+                connection.commit();
+            }
+
+            LoadReport report = new LoadGenerator(container)
+                    .withSessions(sessions)
+                    .withDuration(Duration.ofSeconds(seconds))
+                    .withWorkload((connection, session, iteration) -> {
+                        int counterId = ThreadLocalRandom.current().nextInt(hotRows);
+                        try (PreparedStatement update = connection.prepareStatement(
+                                "update hot_counter set val = val + 1 where id = ?")) {
+                            update.setInt(1, counterId);
+                            update.executeUpdate();
+                        }
+                        try (PreparedStatement insert = connection.prepareStatement(
+                                "insert into counter_history (counter_id, session_id) values (?, ?)")) {
+                            insert.setInt(1, counterId);
+                            insert.setInt(2, session);
+                            insert.executeUpdate();
+                        }
+                    })
+                    .run();
+            System.out.println(report);
+        }
+    }
+}
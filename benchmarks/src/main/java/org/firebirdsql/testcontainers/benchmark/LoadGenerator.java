@@ -0,0 +1,328 @@
+package org.firebirdsql.testcontainers.benchmark;
+
+import org.firebirdsql.testcontainers.FirebirdContainer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a concurrent SQL workload against a {@link FirebirdContainer}, to reproduce lock contention and update
+ * conflicts.
+ * <p>
+ * Each session has its own connection, and repeatedly executes the workload in a transaction until the duration has
+ * elapsed. On Java 21 and higher, sessions run on virtual threads, so thousands of sessions do not require thousands
+ * of platform threads; on older versions, each session has its own platform thread. Note that Jaybird may pin virtual
+ * threads to their carrier thread during network I/O, which limits the benefit before Java 24.
+ * </p>
+ * <p>
+ * Example:
+ * </p>
+ * <pre>{@code
+ * LoadReport report = new LoadGenerator(container)
+ *         .withSessions(1000)
+ *         .withDuration(Duration.ofSeconds(30))
+ *         .withWorkload((connection, session, iteration) -> {
+ *             try (PreparedStatement update = connection.prepareStatement(
+ *                     "update counter set val = val + 1 where id = ?")) {
+ *                 update.setInt(1, session % 10);
+ *                 update.executeUpdate();
+ *             }
+ *         })
+ *         .run();
+ * }</pre>
+ */
+public final class LoadGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadGenerator.class);
+
+    /**
+     * Unit of work, executed in a transaction which is committed afterwards (or rolled back on error).
+     */
+    @FunctionalInterface
+    public interface Workload {
+
+        /**
+         * @param connection
+         *         Connection of the session (auto-commit disabled)
+         * @param session
+         *         Number of the session ({@code 0} to sessions - 1)
+         * @param iteration
+         *         Number of the iteration within the session
+         * @throws SQLException
+         *         for database errors; counted by type in the report. Runtime exceptions are also counted, and
+         *         classified by the {@link SQLException} they wrap, if any
+         */
+        void execute(Connection connection, int session, long iteration) throws SQLException;
+    }
+
+    private final FirebirdContainer container;
+    private int sessions = 100;
+    private Duration duration = Duration.ofSeconds(10);
+    private Workload workload;
+    private Boolean virtualThreads;
+
+    /**
+     * @param container
+     *         Running container
+     */
+    public LoadGenerator(FirebirdContainer container) {
+        this.container = Objects.requireNonNull(container, "container");
+    }
+
+    /**
+     * @param sessions
+     *         Number of concurrent sessions (default 100)
+     * @return this generator
+     */
+    public LoadGenerator withSessions(int sessions) {
+        if (sessions <= 0) {
+            throw new IllegalArgumentException("sessions must be positive, was: " + sessions);
+        }
+        this.sessions = sessions;
+        return this;
+    }
+
+    /**
+     * @param duration
+     *         Duration of the load, excluding connecting the sessions (default 10 seconds)
+     * @return this generator
+     */
+    public LoadGenerator withDuration(Duration duration) {
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("duration must be positive, was: " + duration);
+        }
+        this.duration = duration;
+        return this;
+    }
+
+    /**
+     * @param workload
+     *         Workload to execute
+     * @return this generator
+     */
+    public LoadGenerator withWorkload(Workload workload) {
+        this.workload = Objects.requireNonNull(workload, "workload");
+        return this;
+    }
+
+    /**
+     * Overrides whether to use virtual threads; by default, virtual threads are used when available.
+     *
+     * @param virtualThreads
+     *         {@code true} to use virtual threads (fails if not available), {@code false} for platform threads
+     * @return this generator
+     */
+    public LoadGenerator withVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
+    /**
+     * Connects all sessions, runs the workload for the configured duration, and reports the results.
+     *
+     * @return report of the load
+     * @throws SQLException
+     *         if a session could not connect
+     * @throws InterruptedException
+     *         if interrupted while waiting for the sessions
+     */
+    public LoadReport run() throws SQLException, InterruptedException {
+        if (workload == null) {
+            throw new IllegalStateException("No workload configured");
+        }
+        boolean useVirtualThreads = virtualThreads != null ? virtualThreads : isVirtualThreadsAvailable();
+        List<Connection> connections = new ArrayList<>(sessions);
+        ExecutorService executor = createExecutor(useVirtualThreads);
+        try {
+            log.info("Connecting {} sessions", sessions);
+            for (int i = 0; i < sessions; i++) {
+                Connection connection = container.createConnection("");
+                connection.setAutoCommit(false);
+                connections.add(connection);
+            }
+
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<SessionResult>> futures = new ArrayList<>(sessions);
+            long[] deadline = new long[1];
+            for (int i = 0; i < sessions; i++) {
+                final int session = i;
+                final Connection connection = connections.get(i);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return runSession(connection, session, deadline[0]);
+                }));
+            }
+            log.info("Running workload with {} sessions on {} threads for {}", sessions,
+                    useVirtualThreads ? "virtual" : "platform", duration);
+            long startNanos = System.nanoTime();
+            deadline[0] = startNanos + duration.toNanos();
+            start.countDown();
+
+            LoadReport.Builder report = new LoadReport.Builder(sessions, useVirtualThreads);
+            for (Future<SessionResult> future : futures) {
+                try {
+                    future.get().addTo(report);
+                } catch (ExecutionException e) {
+                    log.warn("Session failed", e.getCause());
+                }
+            }
+            LoadReport result = report.build(Duration.ofNanos(System.nanoTime() - startNanos));
+            log.info("{}", result);
+            return result;
+        } finally {
+            executor.shutdownNow();
+            for (Connection connection : connections) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.debug("Error closing session connection", e);
+                }
+            }
+        }
+    }
+
+    private SessionResult runSession(Connection connection, int session, long deadlineNanos) {
+        SessionResult result = new SessionResult();
+        long iteration = 0;
+        long now = System.nanoTime();
+        while (now - deadlineNanos < 0) {
+            long startNanos = now;
+            try {
+                workload.execute(connection, session, iteration++);
+                connection.commit();
+                now = System.nanoTime();
+                result.recordSuccess(now - startNanos);
+            } catch (SQLException | RuntimeException e) {
+                // Counted like database errors, so the results of the session so far are not lost
+                rollback(connection);
+                now = System.nanoTime();
+                result.recordFailure(ErrorType.of(e));
+            }
+        }
+        return result;
+    }
+
+    private static void rollback(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            log.debug("Rollback failed", e);
+        }
+    }
+
+    /**
+     * @return {@code true} if the JVM supports virtual threads (Java 21+)
+     */
+    public static boolean isVirtualThreadsAvailable() {
+        return getVirtualThreadExecutorFactory() != null;
+    }
+
+    private static Method getVirtualThreadExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private ExecutorService createExecutor(boolean useVirtualThreads) {
+        if (useVirtualThreads) {
+            Method factory = getVirtualThreadExecutorFactory();
+            if (factory == null) {
+                throw new IllegalStateException("Virtual threads require Java 21 or higher");
+            }
+            try {
+                return (ExecutorService) factory.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Could not create virtual thread executor", e);
+            }
+        }
+        AtomicInteger threadCounter = new AtomicInteger();
+        return Executors.newFixedThreadPool(sessions, runnable -> {
+            Thread thread = new Thread(runnable, "load-session-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Classification of errors of the workload.
+     */
+    enum ErrorType {
+        DEADLOCK,
+        UPDATE_CONFLICT,
+        LOCK_CONFLICT,
+        OTHER;
+
+        private static final int ISC_DEADLOCK = 335544336;
+        private static final int ISC_LOCK_CONFLICT = 335544345;
+        private static final int ISC_UPDATE_CONFLICT = 335544451;
+
+        /**
+         * Classifies an exception. Firebird reports update conflicts with the deadlock error code as primary code,
+         * so the message is also checked for the more specific errors. Other exceptions are classified by the first
+         * {@link SQLException} in their causes, or as {@link #OTHER}.
+         */
+        static ErrorType of(Exception exception) {
+            Throwable cause = exception;
+            while (cause != null && !(cause instanceof SQLException)) {
+                cause = cause.getCause();
+            }
+            ErrorType type = OTHER;
+            for (SQLException e = (SQLException) cause; e != null; e = e.getNextException()) {
+                String message = String.valueOf(e.getMessage());
+                if (e.getErrorCode() == ISC_UPDATE_CONFLICT
+                        || message.contains("update conflicts with concurrent update")) {
+                    return UPDATE_CONFLICT;
+                } else if (e.getErrorCode() == ISC_LOCK_CONFLICT || message.contains("lock conflict on no wait")) {
+                    type = LOCK_CONFLICT;
+                } else if (e.getErrorCode() == ISC_DEADLOCK && type == OTHER) {
+                    type = DEADLOCK;
+                }
+            }
+            return type;
+        }
+    }
+
+    /**
+     * Results of a single session; not shared between threads until the session has ended.
+     */
+    private static final class SessionResult {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private final long[] errors = new long[ErrorType.values().length];
+
+        void recordSuccess(long latencyNanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+        }
+
+        void recordFailure(ErrorType errorType) {
+            errors[errorType.ordinal()]++;
+        }
+
+        void addTo(LoadReport.Builder report) {
+            report.addLatencies(latencies, count);
+            for (ErrorType errorType : ErrorType.values()) {
+                report.addErrors(errorType, errors[errorType.ordinal()]);
+            }
+        }
+    }
+}
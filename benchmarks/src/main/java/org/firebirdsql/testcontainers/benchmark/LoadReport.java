@@ -0,0 +1,166 @@
+package org.firebirdsql.testcontainers.benchmark;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Results of a {@link LoadGenerator} run.
+ */
+public final class LoadReport {
+
+    private final int sessions;
+    private final boolean virtualThreads;
+    private final Duration duration;
+    private final long committed;
+    private final long deadlocks;
+    private final long updateConflicts;
+    private final long lockConflicts;
+    private final long otherErrors;
+    private final long p50Nanos;
+    private final long p90Nanos;
+    private final long p99Nanos;
+    private final long maxNanos;
+
+    private LoadReport(Builder builder, Duration duration, long[] sortedLatencies) {
+        this.sessions = builder.sessions;
+        this.virtualThreads = builder.virtualThreads;
+        this.duration = duration;
+        this.committed = sortedLatencies.length;
+        this.deadlocks = builder.errors[LoadGenerator.ErrorType.DEADLOCK.ordinal()];
+        this.updateConflicts = builder.errors[LoadGenerator.ErrorType.UPDATE_CONFLICT.ordinal()];
+        this.lockConflicts = builder.errors[LoadGenerator.ErrorType.LOCK_CONFLICT.ordinal()];
+        this.otherErrors = builder.errors[LoadGenerator.ErrorType.OTHER.ordinal()];
+        this.p50Nanos = percentile(sortedLatencies, 50);
+        this.p90Nanos = percentile(sortedLatencies, 90);
+        this.p99Nanos = percentile(sortedLatencies, 99);
+        this.maxNanos = sortedLatencies.length == 0 ? 0 : sortedLatencies[sortedLatencies.length - 1];
+    }
+
+    /**
+     * Nearest-rank percentile.
+     */
+    private static long percentile(long[] sortedValues, int percentile) {
+        if (sortedValues.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sortedValues.length);
+        return sortedValues[Math.max(0, rank - 1)];
+    }
+
+    public int getSessions() {
+        return sessions;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * @return number of committed transactions
+     */
+    public long getCommitted() {
+        return committed;
+    }
+
+    /**
+     * @return committed transactions per second
+     */
+    public double getThroughput() {
+        long nanos = duration.toNanos();
+        return nanos == 0 ? 0 : committed * 1_000_000_000.0 / nanos;
+    }
+
+    public long getDeadlocks() {
+        return deadlocks;
+    }
+
+    public long getUpdateConflicts() {
+        return updateConflicts;
+    }
+
+    public long getLockConflicts() {
+        return lockConflicts;
+    }
+
+    public long getOtherErrors() {
+        return otherErrors;
+    }
+
+    /**
+     * @return median latency of committed transactions
+     */
+    public Duration getLatencyP50() {
+        return Duration.ofNanos(p50Nanos);
+    }
+
+    public Duration getLatencyP90() {
+        return Duration.ofNanos(p90Nanos);
+    }
+
+    public Duration getLatencyP99() {
+        return Duration.ofNanos(p99Nanos);
+    }
+
+    public Duration getLatencyMax() {
+        return Duration.ofNanos(maxNanos);
+    }
+
+    @Override
+    public String toString() {
+        return "LoadReport{sessions=" + sessions
+                + ", threads=" + (virtualThreads ? "virtual" : "platform")
+                + ", duration=" + duration.toMillis() + "ms"
+                + ", committed=" + committed
+                + ", throughput=" + Math.round(getThroughput()) + "tx/s"
+                + ", p50=" + micros(p50Nanos) + "us"
+                + ", p90=" + micros(p90Nanos) + "us"
+                + ", p99=" + micros(p99Nanos) + "us"
+                + ", max=" + micros(maxNanos) + "us"
+                + ", deadlocks=" + deadlocks
+                + ", updateConflicts=" + updateConflicts
+                + ", lockConflicts=" + lockConflicts
+                + ", otherErrors=" + otherErrors
+                + '}';
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    /**
+     * Collects the results of the sessions.
+     */
+    static final class Builder {
+
+        private final int sessions;
+        private final boolean virtualThreads;
+        private long[] latencies = new long[0];
+        private final long[] errors = new long[LoadGenerator.ErrorType.values().length];
+
+        Builder(int sessions, boolean virtualThreads) {
+            this.sessions = sessions;
+            this.virtualThreads = virtualThreads;
+        }
+
+        void addLatencies(long[] sessionLatencies, int count) {
+            int offset = latencies.length;
+            latencies = Arrays.copyOf(latencies, offset + count);
+            System.arraycopy(sessionLatencies, 0, latencies, offset, count);
+        }
+
+        void addErrors(LoadGenerator.ErrorType errorType, long count) {
+            errors[errorType.ordinal()] += count;
+        }
+
+        LoadReport build(Duration duration) {
+            long[] sortedLatencies = latencies.clone();
+            Arrays.sort(sortedLatencies);
+            return new LoadReport(this, duration, sortedLatencies);
+        }
+    }
+}
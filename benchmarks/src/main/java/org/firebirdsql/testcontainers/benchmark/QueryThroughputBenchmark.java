@@ -0,0 +1,113 @@
+package org.firebirdsql.testcontainers.benchmark;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.firebirdsql.testcontainers.FirebirdContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures simple insert and select throughput through a HikariCP connection pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class QueryThroughputBenchmark {
+
+    private static final int SEED_ROWS = 10_000;
+
+    @Param(BenchmarkRunner.DEFAULT_IMAGE)
+    public String imageName;
+
+    @Param("4")
+    public int poolSize;
+
+    private FirebirdContainer container;
+    private HikariDataSource dataSource;
+    private final AtomicInteger nextId = new AtomicInteger(SEED_ROWS);
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        container = new FirebirdContainer(imageName);
+        container.start();
+
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(container.getJdbcUrl());
+        config.setUsername(container.getUsername());
+        config.setPassword(container.getPassword());
+        config.setMaximumPoolSize(poolSize);
+        config.setMinimumIdle(poolSize);
+        dataSource = new HikariDataSource(config);
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table benchmark_data (id integer primary key, val varchar(100))");
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "insert into benchmark_data (id, val) values (?, ?)")) {
+                connection.setAutoCommit(false);
+                for (int id = 0; id < SEED_ROWS; id++) {
+                    insert.setInt(1, id);
+                    insert.setString(2, "value " + id);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                connection.commit();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+        container.stop();
+    }
+
+    @Benchmark
+    public int insert() throws SQLException {
+        int id = nextId.getAndIncrement();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement(
+                     "insert into benchmark_data (id, val) values (?, ?)")) {
+            insert.setInt(1, id);
+            insert.setString(2, "value " + id);
+            return insert.executeUpdate();
+        }
+    }
+
+    @Benchmark
+    public String selectByPrimaryKey() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement(
+                     "select val from benchmark_data where id = ?")) {
+            select.setInt(1, ThreadLocalRandom.current().nextInt(SEED_ROWS));
+            try (ResultSet rs = select.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+}
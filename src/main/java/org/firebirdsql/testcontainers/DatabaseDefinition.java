@@ -0,0 +1,164 @@
+package org.firebirdsql.testcontainers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Definition of an additional database to create in a {@link FirebirdContainer}.
+ * <p>
+ * Example:
+ * </p>
+ * <pre>{@code
+ * new FirebirdContainer(imageName)
+ *         .withAdditionalUser("reporting", "secret")
+ *         .withAdditionalDatabase(new DatabaseDefinition("orders")
+ *                 .withPageSize(16384)
+ *                 .withDefaultCharacterSet("UTF8")
+ *                 .withRole("REPORTER", "REPORTING"));
+ * }</pre>
+ *
+ * @see FirebirdContainer#withAdditionalDatabase(DatabaseDefinition)
+ */
+public final class DatabaseDefinition {
+
+    static final Pattern IDENTIFIER_PATTERN = Pattern.compile("[A-Za-z][A-Za-z0-9_$]*");
+    private static final List<Integer> PAGE_SIZES = Arrays.asList(4096, 8192, 16384, 32768);
+
+    private final String databaseName;
+    private Integer pageSize;
+    private int dialect = 3;
+    private String defaultCharacterSet;
+    private final Map<String, List<String>> roles = new LinkedHashMap<>();
+
+    /**
+     * @param databaseName
+     *         Name of the database; a relative name is created in the data directory of the container
+     */
+    public DatabaseDefinition(String databaseName) {
+        this.databaseName = Objects.requireNonNull(databaseName, "databaseName");
+        if (databaseName.trim().isEmpty()) {
+            throw new IllegalArgumentException("databaseName must not be empty");
+        }
+    }
+
+    /**
+     * @param pageSize
+     *         Page size in bytes: 4096, 8192, 16384 or 32768 (Firebird 4.0 and higher); default: server default
+     * @return this definition
+     */
+    public DatabaseDefinition withPageSize(int pageSize) {
+        this.pageSize = requirePageSize(pageSize);
+        return this;
+    }
+
+    /**
+     * @param dialect
+     *         SQL dialect, {@code 1} or {@code 3} (default)
+     * @return this definition
+     */
+    public DatabaseDefinition withDialect(int dialect) {
+        this.dialect = requireDialect(dialect);
+        return this;
+    }
+
+    /**
+     * @param defaultCharacterSet
+     *         Default character set of the database (e.g. {@code UTF8}); default: {@code NONE}
+     * @return this definition
+     */
+    public DatabaseDefinition withDefaultCharacterSet(String defaultCharacterSet) {
+        this.defaultCharacterSet = requireIdentifier(defaultCharacterSet, "defaultCharacterSet");
+        return this;
+    }
+
+    /**
+     * Creates a role in the database, and grants it to users.
+     *
+     * @param roleName
+     *         Name of the role
+     * @param grantees
+     *         Names of the users to grant the role to
+     * @return this definition
+     */
+    public DatabaseDefinition withRole(String roleName, String... grantees) {
+        List<String> roleGrantees = roles.computeIfAbsent(requireIdentifier(roleName, "roleName"),
+                name -> new ArrayList<>());
+        for (String grantee : grantees) {
+            roleGrantees.add(requireIdentifier(grantee, "grantee"));
+        }
+        return this;
+    }
+
+    static int requirePageSize(int pageSize) {
+        if (!PAGE_SIZES.contains(pageSize)) {
+            throw new IllegalArgumentException("pageSize must be one of " + PAGE_SIZES + ", was: " + pageSize);
+        }
+        return pageSize;
+    }
+
+    static int requireDialect(int dialect) {
+        if (dialect != 1 && dialect != 3) {
+            throw new IllegalArgumentException("dialect must be 1 or 3, was: " + dialect);
+        }
+        return dialect;
+    }
+
+    static String requireIdentifier(String value, String name) {
+        if (value == null || !IDENTIFIER_PATTERN.matcher(value).matches()) {
+            throw new IllegalArgumentException(name + " must be a regular identifier, was: " + value);
+        }
+        return value;
+    }
+
+    /**
+     * @return name of the database, as passed to the constructor
+     */
+    public String getDatabaseName() {
+        return databaseName;
+    }
+
+    /**
+     * @return page size, or {@code null} for the server default
+     */
+    public Integer getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * @return SQL dialect, {@code 1} or {@code 3} (default)
+     */
+    public int getDialect() {
+        return dialect;
+    }
+
+    /**
+     * @return default character set, or {@code null} for {@code NONE}
+     */
+    public String getDefaultCharacterSet() {
+        return defaultCharacterSet;
+    }
+
+    /**
+     * @return roles with the users they are granted to
+     */
+    public Map<String, List<String>> getRoles() {
+        return Collections.unmodifiableMap(roles);
+    }
+
+    @Override
+    public String toString() {
+        return "DatabaseDefinition{"
+                + "databaseName='" + databaseName + '\''
+                + ", pageSize=" + pageSize
+                + ", dialect=" + dialect
+                + ", defaultCharacterSet=" + defaultCharacterSet
+                + ", roles=" + roles
+                + '}';
+    }
+}
@@ -0,0 +1,380 @@
+package org.firebirdsql.testcontainers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Loads large amounts of rows into a table of a running {@link FirebirdContainer}.
+ * <p>
+ * Rows are inserted with a prepared statement using JDBC batches, and committed periodically instead of per row. The
+ * connection is created with {@link FirebirdContainer#createConnection(String)}, so it uses the JDBC URL, URL
+ * parameters and credentials of the container.
+ * </p>
+ * <p>
+ * Example:
+ * </p>
+ * <pre>{@code
+ * FirebirdBulkLoader.LoadResult result = new FirebirdBulkLoader(container, "CUSTOMER", "ID", "NAME")
+ *         .withBatchSize(1000)
+ *         .loadCsv(reader, true);
+ * }</pre>
+ * <p>
+ * The table and column names are used as-is in the insert statement; quote them if needed.
+ * </p>
+ */
+public final class FirebirdBulkLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(FirebirdBulkLoader.class);
+
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final int DEFAULT_COMMIT_INTERVAL = 50_000;
+
+    private final FirebirdContainer container;
+    private final String tableName;
+    private final List<String> columnNames;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int commitInterval = DEFAULT_COMMIT_INTERVAL;
+    private char csvDelimiter = ',';
+
+    /**
+     * Creates a bulk loader.
+     *
+     * @param container
+     *         Running container
+     * @param tableName
+     *         Name of the table to load
+     * @param columnNames
+     *         Names of the columns to load, in the order of the values of each row
+     */
+    public FirebirdBulkLoader(FirebirdContainer container, String tableName, String... columnNames) {
+        if (columnNames.length == 0) {
+            throw new IllegalArgumentException("At least one column name is required");
+        }
+        this.container = container;
+        this.tableName = tableName;
+        this.columnNames = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(columnNames)));
+    }
+
+    /**
+     * Sets the number of rows per JDBC batch (default 500).
+     *
+     * @param batchSize
+     *         Rows per batch (must be positive)
+     * @return this loader
+     */
+    public FirebirdBulkLoader withBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive, was: " + batchSize);
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Sets the number of rows after which the transaction is committed (default 50000).
+     * <p>
+     * A commit is performed at the end of the first batch which reaches the commit interval, and at the end of the
+     * load.
+     * </p>
+     *
+     * @param commitInterval
+     *         Rows per transaction (must be positive)
+     * @return this loader
+     */
+    public FirebirdBulkLoader withCommitInterval(int commitInterval) {
+        if (commitInterval <= 0) {
+            throw new IllegalArgumentException("commitInterval must be positive, was: " + commitInterval);
+        }
+        this.commitInterval = commitInterval;
+        return this;
+    }
+
+    /**
+     * Sets the field delimiter for {@link #loadCsv(Reader, boolean)} (default {@code ','}).
+     *
+     * @param csvDelimiter
+     *         Field delimiter
+     * @return this loader
+     */
+    public FirebirdBulkLoader withCsvDelimiter(char csvDelimiter) {
+        if (csvDelimiter == '"' || csvDelimiter == '\r' || csvDelimiter == '\n') {
+            throw new IllegalArgumentException("Invalid delimiter: " + csvDelimiter);
+        }
+        this.csvDelimiter = csvDelimiter;
+        return this;
+    }
+
+    /**
+     * Loads rows.
+     * <p>
+     * The values of a row are set with {@link PreparedStatement#setObject(int, Object)}, in the order of the column
+     * names. If loading fails, the uncommitted rows are rolled back, but rows of earlier transactions remain.
+     * </p>
+     *
+     * @param rows
+     *         Rows to load, each with a value for each column
+     * @return result of the load
+     * @throws SQLException
+     *         for errors connecting or inserting
+     */
+    public LoadResult load(Iterator<? extends Object[]> rows) throws SQLException {
+        long startNanos = System.nanoTime();
+        long rowCount = 0;
+        try (Connection connection = container.createConnection("")) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(createInsertStatement())) {
+                int rowsInBatch = 0;
+                long rowsSinceCommit = 0;
+                while (rows.hasNext()) {
+                    Object[] row = rows.next();
+                    if (row.length != columnNames.size()) {
+                        throw new IllegalArgumentException("Row " + (rowCount + 1) + " has " + row.length
+                                + " values, expected " + columnNames.size());
+                    }
+                    for (int i = 0; i < row.length; i++) {
+                        insert.setObject(i + 1, row[i]);
+                    }
+                    insert.addBatch();
+                    rowCount++;
+                    if (++rowsInBatch == batchSize) {
+                        insert.executeBatch();
+                        rowsSinceCommit += rowsInBatch;
+                        rowsInBatch = 0;
+                        if (rowsSinceCommit >= commitInterval) {
+                            connection.commit();
+                            rowsSinceCommit = 0;
+                        }
+                    }
+                }
+                if (rowsInBatch > 0) {
+                    insert.executeBatch();
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackException) {
+                    e.addSuppressed(rollbackException);
+                }
+                throw e;
+            }
+        }
+        LoadResult result = new LoadResult(rowCount, Duration.ofNanos(System.nanoTime() - startNanos));
+        log.info("Loaded {} rows into {} in {} ms ({} rows/s)", rowCount, tableName, result.getDuration().toMillis(),
+                Math.round(result.getRowsPerSecond()));
+        return result;
+    }
+
+    /**
+     * Loads rows from CSV (RFC 4180).
+     * <p>
+     * Values are passed as strings, and converted by Firebird to the type of the column. Fields can be quoted with
+     * {@code "}, where a quote in a quoted field is escaped by doubling it. An empty unquoted field is loaded as
+     * {@code NULL}. Blank lines are skipped, except when loading a single column, where a blank line is a row with
+     * an empty field ({@code NULL}). The input is streamed, so it can be larger than the available memory.
+     * </p>
+     *
+     * @param reader
+     *         Reader of the CSV data (not closed by this method)
+     * @param skipHeader
+     *         {@code true} to skip the first line
+     * @return result of the load
+     * @throws SQLException
+     *         for errors connecting or inserting
+     * @throws IOException
+     *         for errors reading {@code reader}
+     */
+    public LoadResult loadCsv(Reader reader, boolean skipHeader) throws SQLException, IOException {
+        CsvRowIterator rows = new CsvRowIterator(reader, csvDelimiter, columnNames.size() > 1);
+        try {
+            if (skipHeader && rows.hasNext()) {
+                rows.next();
+            }
+            return load(rows);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private String createInsertStatement() {
+        StringBuilder sb = new StringBuilder("insert into ").append(tableName).append(" (")
+                .append(String.join(", ", columnNames))
+                .append(") values (?");
+        for (int i = 1; i < columnNames.size(); i++) {
+            sb.append(", ?");
+        }
+        return sb.append(')').toString();
+    }
+
+    /**
+     * Result of a bulk load.
+     */
+    public static final class LoadResult {
+
+        private final long rowCount;
+        private final Duration duration;
+
+        LoadResult(long rowCount, Duration duration) {
+            this.rowCount = rowCount;
+            this.duration = duration;
+        }
+
+        /**
+         * @return number of rows loaded
+         */
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        /**
+         * @return duration of the load, including connecting
+         */
+        public Duration getDuration() {
+            return duration;
+        }
+
+        /**
+         * @return rows loaded per second
+         */
+        public double getRowsPerSecond() {
+            long nanos = duration.toNanos();
+            return nanos == 0 ? 0 : rowCount * 1_000_000_000.0 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return "LoadResult{rowCount=" + rowCount + ", duration=" + duration.toMillis() + "ms, rowsPerSecond="
+                    + Math.round(getRowsPerSecond()) + "}";
+        }
+    }
+
+    /**
+     * Streaming CSV parser producing a row of strings per record.
+     */
+    static final class CsvRowIterator implements Iterator<Object[]> {
+
+        private static final int EOF = -1;
+
+        private final Reader reader;
+        private final char delimiter;
+        private final boolean skipBlankLines;
+        private int lookahead = -2;
+        private Object[] nextRow;
+
+        /**
+         * @param reader
+         *         Reader of the CSV data
+         * @param delimiter
+         *         Field delimiter
+         * @param skipBlankLines
+         *         {@code true} to skip blank lines, {@code false} to return a row with one {@code null} field for
+         *         a blank line (as with a single column)
+         */
+        CsvRowIterator(Reader reader, char delimiter, boolean skipBlankLines) {
+            this.reader = reader;
+            this.delimiter = delimiter;
+            this.skipBlankLines = skipBlankLines;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextRow == null) {
+                try {
+                    nextRow = readRow();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return nextRow != null;
+        }
+
+        @Override
+        public Object[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Object[] row = nextRow;
+            nextRow = null;
+            return row;
+        }
+
+        private int read() throws IOException {
+            if (lookahead != -2) {
+                int c = lookahead;
+                lookahead = -2;
+                return c;
+            }
+            return reader.read();
+        }
+
+        private int peek() throws IOException {
+            if (lookahead == -2) {
+                lookahead = reader.read();
+            }
+            return lookahead;
+        }
+
+        /**
+         * @return next row, or {@code null} at end of input
+         */
+        private Object[] readRow() throws IOException {
+            int c = read();
+            while (skipBlankLines && (c == '\r' || c == '\n')) {
+                c = read();
+            }
+            if (c == EOF) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean inQuotes = false;
+            while (true) {
+                if (inQuotes) {
+                    if (c == EOF) {
+                        throw new IOException("Unterminated quoted field in CSV");
+                    } else if (c == '"') {
+                        if (peek() == '"') {
+                            field.append('"');
+                            read();
+                        } else {
+                            inQuotes = false;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == delimiter || c == '\r' || c == '\n' || c == EOF) {
+                    fields.add(quoted || field.length() > 0 ? field.toString() : null);
+                    if (c != delimiter) {
+                        if (c == '\r' && peek() == '\n') {
+                            read();
+                        }
+                        return fields.toArray();
+                    }
+                    field.setLength(0);
+                    quoted = false;
+                } else if (c == '"' && field.length() == 0 && !quoted) {
+                    quoted = true;
+                    inQuotes = true;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+    }
+}
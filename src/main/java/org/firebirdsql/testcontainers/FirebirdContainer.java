@@ -1,13 +1,61 @@
 package org.firebirdsql.testcontainers;
 
+import com.github.dockerjava.api.command.CreateContainerCmd;
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.command.InspectImageResponse;
+import com.github.dockerjava.api.exception.NotFoundException;
+import com.github.dockerjava.api.model.ContainerConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.testcontainers.containers.Container;
+import org.testcontainers.containers.ExecConfig;
 import org.testcontainers.containers.JdbcDatabaseContainer;
+import org.testcontainers.ext.ScriptUtils;
+import org.testcontainers.images.builder.Transferable;
+import org.testcontainers.lifecycle.Startables;
 import org.testcontainers.utility.DockerImageName;
+import org.testcontainers.utility.MountableFile;
+import org.testcontainers.utility.TestcontainersConfiguration;
 
 import javax.crypto.Cipher;
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
 
 /**
  * Testcontainers implementation for Firebird.
@@ -15,6 +63,12 @@ import java.time.ZoneId;
  * Supported images: {@code firebirdsql/firebird} and {@code jacobalberty/firebird} (deprecated).
  * <p>
  * Exposed ports: 3050
+ * <p>
+ * Default wait strategy: waits until the server responds to a Firebird protocol connect request on port 3050, followed
+ * by a JDBC connection to confirm the database is available.
+ * <p>
+ * Reuse: with {@code withReuse(true)} (and reuse enabled in the Testcontainers configuration), the database is reset
+ * to its state after the first start each time the container is reused, and init scripts are not executed again.
  */
 public class FirebirdContainer extends JdbcDatabaseContainer<FirebirdContainer> {
 
@@ -41,8 +95,39 @@ public class FirebirdContainer extends JdbcDatabaseContainer<FirebirdContainer>
     public static final Integer FIREBIRD_PORT = 3050;
     private static final String FIREBIRD_SYSDBA = "sysdba";
     private static final int ARC4_REQUIRED_BITS = 160;
+    private static final String WIRE_CRYPT_PLUGIN_OPTION = "WireCryptPlugin";
+    private static final String BOUNCY_CASTLE_CHACHA_ENGINE_CLASS = "org.bouncycastle.crypto.engines.ChaChaEngine";
     private static final String CONNECTION_PROPERTY_AUTH_PLUGINS = "authPlugins";
+    private static final String PROJECT_DATA_DIRECTORY = "/var/lib/firebird/data";
+    private static final String JACOB_ALBERTY_DEFAULT_DATA_DIRECTORY = "/firebird/data";
+    private static final String SNAPSHOT_DIRECTORY = ".snapshots";
+    private static final Pattern SNAPSHOT_NAME_PATTERN = Pattern.compile("[A-Za-z0-9_-]+");
+    private static final Pattern CONFIGURATION_OPTION_NAME_PATTERN = Pattern.compile("[A-Za-z][A-Za-z0-9]*");
+    private static final String RESTORE_DIRECTORY = "/tmp/firebird-restore";
+    private static final String FIREBIRD_OS_USER = "firebird";
+    private static final int DEFAULT_DATA_SOURCE_POOL_SIZE = 10;
+    private static final String HIKARI_CONFIG_CLASS = "com.zaxxer.hikari.HikariConfig";
+    private static final String HIKARI_DATA_SOURCE_CLASS = "com.zaxxer.hikari.HikariDataSource";
+    private static final String INITIALIZATION_HASH_LABEL = "org.firebirdsql.testcontainers.initialization-hash";
+    private static final String REUSE_SNAPSHOT_NAME = "reuse-initial";
+    private static final String IMAGE_CACHE_REPOSITORY = "firebird-testcontainers-cache";
+    private static final String IMAGE_CACHE_SEED_DIRECTORY = "/var/tmp/firebird-testcontainers-seed";
+    private static final String TRACE_DIRECTORY = "/tmp/firebird-trace";
+    private static final String PROVISIONING_DIRECTORY = "/tmp/firebird-provisioning";
+    private static final String INIT_SCRIPT_DIRECTORY = "/tmp/firebird-init";
+    private static final Duration TRACE_START_TIMEOUT = Duration.ofSeconds(30);
+    // Performance profile: a quarter of the memory for the page cache, and an eighth for sorts and temporary data
+    private static final int PROFILE_PAGE_CACHE_FRACTION = 4;
+    private static final int PROFILE_TEMP_CACHE_FRACTION = 8;
+    private static final int PROFILE_ASSUMED_PAGE_SIZE = 8192;
+    private static final int PROFILE_MIN_CACHE_PAGES = 256;
+    private static final long PROFILE_MIN_MEMORY_BYTES = 64L * 1024 * 1024;
+    private static final List<String> FIREBIRD_5_CONFIGURATION_OPTIONS =
+            Arrays.asList("ParallelWorkers", "MaxParallelWorkers");
 
+    private final DockerImageName firebirdImageName;
+    private final ImageVariant imageVariant;
+    private final FirebirdVersion firebirdVersion;
     private String databaseName = "test";
     private String username = "test";
     private String password = "test";
@@ -50,6 +135,38 @@ public class FirebirdContainer extends JdbcDatabaseContainer<FirebirdContainer>
     private String timeZone = ZoneId.systemDefault().getId();
     private boolean enableWireCrypt;
     private String sysdbaPassword;
+    private final AtomicInteger cloneCounter = new AtomicInteger();
+    private final AtomicInteger traceCounter = new AtomicInteger();
+    private final List<Consumer<StartupTimings>> startupListeners = new ArrayList<>();
+    private final Map<StartupTimings.Phase, Duration> startupPhaseDurations =
+            new EnumMap<>(StartupTimings.Phase.class);
+    private long lastPhaseEndNanos;
+    private volatile StartupTimings startupTimings;
+    private final Map<String, String> configurationOptions = new LinkedHashMap<>();
+    private boolean inMemoryStorage;
+    private int profileCpuCount;
+    private long profileMemoryBytes;
+    private String inMemoryStorageSize;
+    private Integer databasePageSize;
+    private String databaseDefaultCharacterSet;
+    private Integer databaseDialect;
+    private Boolean forcedWrites;
+    private Integer sweepInterval;
+    private final List<DatabaseDefinition> additionalDatabases = new ArrayList<>();
+    private final Map<String, String> additionalUsers = new LinkedHashMap<>();
+    private MountableFile restoreFrom;
+    private String restoreFileName;
+    private int restoreParallelWorkers;
+    private final List<String> initScriptPaths = new ArrayList<>();
+    private InitScriptMode initScriptMode = InitScriptMode.JDBC;
+    private final Map<String, Duration> initScriptTimings = new LinkedHashMap<>();
+    private boolean imageCache;
+    private String imageCacheName;
+    private boolean usingCachedImage;
+    private boolean reusedContainer;
+    private int dataSourcePoolSize = DEFAULT_DATA_SOURCE_POOL_SIZE;
+    private DataSource dataSource;
+    private String[] cachedImageCommand;
 
     /**
      * Creates a Firebird container with an image name (e.g. {@code "firebirdsql/firebird:5.0.3"}.
@@ -68,15 +185,34 @@ public class FirebirdContainer extends JdbcDatabaseContainer<FirebirdContainer>
     public FirebirdContainer(DockerImageName dockerImageName) {
         super(dockerImageName);
         dockerImageName.assertCompatibleWith(PROJECT_IMAGE_NAME, JACOB_ALBERTY_IMAGE_NAME);
+        // Remembered, as the image name changes when using the image cache
+        this.firebirdImageName = dockerImageName;
+        this.imageVariant = ImageVariant.of(dockerImageName);
+        this.firebirdVersion = FirebirdVersion.of(dockerImageName);
 
         addExposedPort(FIREBIRD_PORT);
+        this.waitStrategy = new FirebirdWaitStrategy();
     }
 
     @Override
     protected void configure() {
-        ImageVariant variant = ImageVariant.of(getDockerImageName());
+        startPhaseTiming();
+        ImageVariant variant = imageVariant;
         variant.setTimeZone(this);
-        variant.setDatabaseName(this);
+        // Options derived from other settings, not stored in configurationOptions, so they are derived again on restart
+        Map<String, String> derivedOptions = new LinkedHashMap<>();
+        if (restoreFrom != null) {
+            // The database is restored from the backup instead of being created by the image
+            configureRestore(variant, derivedOptions);
+        } else {
+            variant.setDatabaseName(this);
+            if (databasePageSize != null || databaseDefaultCharacterSet != null) {
+                variant.setDatabaseCreateOptions(this);
+            }
+        }
+        if (hasDatabaseProperties()) {
+            configureDatabaseProperties();
+        }
 
         variant.setUserAndPassword(this);
 
@@ -90,11 +226,482 @@ public class FirebirdContainer extends JdbcDatabaseContainer<FirebirdContainer>
 
         if (enableWireCrypt) {
             variant.setWireCryptEnabled(this);
-        } else if (!isWireEncryptionSupported()) {
-            log.warn("Java Virtual Machine does not support wire protocol encryption requirements. " +
-                "Downgrading to EnableWireCrypt = true. To fix this, configure the JVM with unlimited strength Cryptographic Jurisdiction Policy.");
+        } else if (!isWireEncryptionSupportedByServer()) {
+            WireCryptSupport.logDowngradeWarning();
             variant.setWireCryptEnabled(this);
         }
+
+        if (profileCpuCount > 0) {
+            applyPerformanceProfile(variant, derivedOptions);
+        }
+
+        // Explicitly configured options take precedence over derived options
+        Map<String, String> effectiveOptions = new LinkedHashMap<>(derivedOptions);
+        effectiveOptions.putAll(configurationOptions);
+        if (!effectiveOptions.isEmpty()) {
+            checkConfigurationOptionsSupported(effectiveOptions);
+            variant.setConfigurationOptions(this, effectiveOptions);
+        }
+
+        if (inMemoryStorage) {
+            mountDataDirectoryAsTmpfs(variant);
+        }
+
+        if ((!additionalDatabases.isEmpty() || !additionalUsers.isEmpty()) && !firebirdVersion.isAtLeast(3)) {
+            throw new IllegalStateException(
+                    "Additional databases and users require Firebird 3.0 or higher, image: " + firebirdImageName);
+        }
+
+        if (isShouldBeReused()) {
+            withLabel(INITIALIZATION_HASH_LABEL, sha256Hex(getInitializationConfiguration()));
+        }
+
+        reusedContainer = false;
+        usingCachedImage = false;
+        if (imageCache) {
+            configureImageCache(variant);
+        }
+        endPhase(StartupTimings.Phase.CONFIGURE);
+        // Resolving the image name pulls the image if needed
+        getDockerImageName();
+        endPhase(StartupTimings.Phase.IMAGE_RESOLUTION);
+    }
+
+    /**
+     * Switches to the cached image for the current configuration if it exists, or otherwise registers the name under
+     * which to commit the container after initialization.
+     */
+    private void configureImageCache(ImageVariant variant) {
+        String cachedImageName = IMAGE_CACHE_REPOSITORY + ":" + computeImageCacheKey();
+        InspectImageResponse cachedImage;
+        try {
+            cachedImage = getDockerClient().inspectImageCmd(cachedImageName).exec();
+        } catch (NotFoundException e) {
+            log.debug("Cached image {} not found, it will be created after initialization", cachedImageName);
+            imageCacheName = cachedImageName;
+            setDockerImageName(firebirdImageName.asCanonicalNameString());
+            return;
+        }
+        log.info("Using cached image {} for {}", cachedImageName, firebirdImageName);
+        imageCacheName = cachedImageName;
+        usingCachedImage = true;
+        setDockerImageName(cachedImageName);
+
+        // The data directory is usually a volume, which is not part of the committed image, so the database files
+        // are copied from the seed directory before running the original entrypoint
+        List<String> command = new ArrayList<>();
+        ContainerConfig imageConfig = cachedImage.getConfig();
+        if (imageConfig != null) {
+            if (imageConfig.getEntrypoint() != null) {
+                command.addAll(Arrays.asList(imageConfig.getEntrypoint()));
+            }
+            if (imageConfig.getCmd() != null) {
+                command.addAll(Arrays.asList(imageConfig.getCmd()));
+            }
+        }
+        if (command.isEmpty()) {
+            throw new IllegalStateException("Cached image " + cachedImageName + " has no entrypoint or command");
+        }
+        String dataDirectory = variant.getDataDirectory(this);
+        command.add(0, "if [ -d " + quote(IMAGE_CACHE_SEED_DIRECTORY) + " ]; then mkdir -p " + quote(dataDirectory)
+                + " && cp -pRn " + quote(IMAGE_CACHE_SEED_DIRECTORY + "/.") + " " + quote(dataDirectory)
+                + "; fi; exec \"$0\" \"$@\"");
+        cachedImageCommand = command.toArray(new String[0]);
+    }
+
+    /**
+     * Computes the key of the cached image from everything which determines the initialized state of the container.
+     */
+    private String computeImageCacheKey() {
+        List<String> parts = new ArrayList<>();
+        parts.add("image=" + firebirdImageName.asCanonicalNameString());
+        parts.add("database=" + databaseName);
+        new TreeMap<>(getEnvMap()).forEach((name, value) -> parts.add("env:" + name + "=" + value));
+        // The seed copied into the data directory on start depends on where and how the database is stored
+        parts.add("inMemoryStorage=" + inMemoryStorage + ",size=" + inMemoryStorageSize);
+        if (getTmpFsMapping() != null) {
+            new TreeMap<>(getTmpFsMapping()).forEach((path, options) -> parts.add("tmpfs:" + path + "=" + options));
+        }
+        if (restoreFrom != null) {
+            parts.add("restore:" + restoreFileName + "=" + checksum(restoreFrom));
+        }
+        parts.addAll(getInitializationConfiguration());
+        return sha256Hex(parts);
+    }
+
+    /**
+     * Describes what is applied to the database after the container has started: init scripts (by content), database
+     * properties, and additional databases and users.
+     * <p>
+     * For reusable containers, this is used as a label, so only a container initialized the same way is reused. The
+     * reuse hash of Testcontainers covers the image, environment, labels and copied files (like a backup to restore)
+     * of the container, but not the init scripts (which run over JDBC) or the settings applied with {@code gfix} and
+     * {@code isql} after the start.
+     * </p>
+     */
+    private List<String> getInitializationConfiguration() {
+        List<String> parts = new ArrayList<>();
+        for (String initScriptPath : initScriptPaths) {
+            parts.add("script:" + initScriptPath + "="
+                    + checksum(MountableFile.forClasspathResource(initScriptPath)));
+        }
+        parts.add("initScriptMode=" + initScriptMode);
+        parts.add("databaseDialect=" + databaseDialect);
+        parts.add("forcedWrites=" + forcedWrites);
+        parts.add("sweepInterval=" + sweepInterval);
+        parts.add("additionalDatabases=" + additionalDatabases);
+        parts.add("additionalUsers=" + additionalUsers);
+        return parts;
+    }
+
+    private static String sha256Hex(List<String> parts) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not supported", e);
+        }
+        for (String part : parts) {
+            digest.update(part.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static long checksum(MountableFile file) {
+        CRC32 crc = new CRC32();
+        file.updateChecksum(crc);
+        return crc.getValue();
+    }
+
+    private void configureRestore(ImageVariant variant, Map<String, String> derivedOptions) {
+        if (!firebirdVersion.isAtLeast(3)) {
+            throw new IllegalStateException(
+                    "Restoring a backup requires Firebird 3.0 or higher, image: " + firebirdImageName);
+        }
+        if (databaseDefaultCharacterSet != null) {
+            throw new IllegalStateException(
+                    "The default character set cannot be changed when restoring a backup, it is part of the backup");
+        }
+        restoreParallelWorkers = 1;
+        if (variant == ImageVariant.PROJECT && firebirdVersion.isAtLeast(5) && !isNbackupFile(restoreFileName)) {
+            // Parallel restore is limited by MaxParallelWorkers, which defaults to 1
+            int workers = profileCpuCount > 0 ? profileCpuCount : Runtime.getRuntime().availableProcessors();
+            String maxParallelWorkers = configurationOptions.get("MaxParallelWorkers");
+            if (maxParallelWorkers == null) {
+                maxParallelWorkers = String.valueOf(workers);
+                derivedOptions.put("MaxParallelWorkers", maxParallelWorkers);
+            }
+            try {
+                restoreParallelWorkers = Math.max(1, Integer.parseInt(maxParallelWorkers));
+            } catch (NumberFormatException e) {
+                log.debug("Invalid value for MaxParallelWorkers, restoring without parallel workers", e);
+            }
+        }
+    }
+
+    /**
+     * Checks if the JVM supports one of the wire encryption plugins of the server, so {@code WireCrypt} does not need
+     * to be relaxed.
+     * <p>
+     * The plugins of the server are those set with {@link #withConfigurationOption(String, String)}, or otherwise the
+     * defaults of its version: {@code Arc4}, and on Firebird 4.0 and higher also {@code ChaCha}, and on Firebird 5.0
+     * and higher {@code ChaCha64} (not available in Firebird 4.0.0, and the image tag may not contain the patch
+     * version).
+     * </p>
+     */
+    private boolean isWireEncryptionSupportedByServer() {
+        List<String> serverPlugins;
+        String configuredPlugins = configurationOptions.get(WIRE_CRYPT_PLUGIN_OPTION);
+        if (configuredPlugins != null) {
+            serverPlugins = Arrays.asList(configuredPlugins.trim().split("[\\s,;]+"));
+        } else {
+            serverPlugins = new ArrayList<>();
+            serverPlugins.add("Arc4");
+            if (firebirdVersion.isAtLeast(4)) {
+                serverPlugins.add("ChaCha");
+            }
+            if (firebirdVersion.isAtLeast(5)) {
+                serverPlugins.add("ChaCha64");
+            }
+        }
+        return WireCryptSupport.PLUGINS.stream()
+                .anyMatch(plugin -> serverPlugins.stream().anyMatch(plugin::equalsIgnoreCase));
+    }
+
+    private boolean hasDatabaseProperties() {
+        return databaseDialect != null || forcedWrites != null || sweepInterval != null;
+    }
+
+    private void configureDatabaseProperties() {
+        if (!firebirdVersion.isAtLeast(3)) {
+            throw new IllegalStateException("Changing the SQL dialect, forced writes or sweep interval requires "
+                    + "Firebird 3.0 or higher, image: " + firebirdImageName);
+        }
+        if (databaseDialect != null && databaseDialect == 1 && !urlParameters.containsKey("sqlDialect")) {
+            // Jaybird connects with dialect 3 by default
+            withUrlParam("sqlDialect", "1");
+        }
+    }
+
+    private static boolean isNbackupFile(String fileName) {
+        return fileName.toLowerCase(Locale.ROOT).endsWith(".nbk");
+    }
+
+    private void applyPerformanceProfile(ImageVariant variant, Map<String, String> derivedOptions) {
+        if (variant != ImageVariant.PROJECT) {
+            log.warn("Image {} does not support configuration options, only CPU and memory limits of the "
+                    + "performance profile are applied", firebirdImageName);
+            return;
+        }
+        long cachePages = Math.max(PROFILE_MIN_CACHE_PAGES,
+                profileMemoryBytes / PROFILE_PAGE_CACHE_FRACTION / PROFILE_ASSUMED_PAGE_SIZE);
+        derivedOptions.putIfAbsent("DefaultDbCachePages", String.valueOf(cachePages));
+        derivedOptions.putIfAbsent("TempCacheLimit", String.valueOf(profileMemoryBytes / PROFILE_TEMP_CACHE_FRACTION));
+        if (firebirdVersion.isAtLeast(5)) {
+            derivedOptions.putIfAbsent("ParallelWorkers", String.valueOf(profileCpuCount));
+            derivedOptions.putIfAbsent("MaxParallelWorkers", String.valueOf(profileCpuCount));
+        }
+    }
+
+    /**
+     * Limits the CPUs and memory of the container to the performance profile.
+     */
+    private void applyResourceLimits(CreateContainerCmd cmd) {
+        cmd.getHostConfig()
+                .withNanoCPUs(profileCpuCount * 1_000_000_000L)
+                .withMemory(profileMemoryBytes)
+                .withMemorySwap(profileMemoryBytes);
+    }
+
+    private void checkConfigurationOptionsSupported(Map<String, String> effectiveOptions) {
+        for (String firebird5Option : FIREBIRD_5_CONFIGURATION_OPTIONS) {
+            if (effectiveOptions.containsKey(firebird5Option) && !firebirdVersion.isAtLeast(5)) {
+                throw new IllegalStateException(
+                        "Configuration option " + firebird5Option + " requires Firebird 5.0 or higher, image: "
+                        + firebirdImageName);
+            }
+        }
+    }
+
+    private void mountDataDirectoryAsTmpfs(ImageVariant variant) {
+        String options = "rw,mode=1777";
+        if (inMemoryStorageSize != null) {
+            options += ",size=" + inMemoryStorageSize;
+        }
+        Map<String, String> tmpFsMapping = new HashMap<>();
+        if (getTmpFsMapping() != null) {
+            tmpFsMapping.putAll(getTmpFsMapping());
+        }
+        tmpFsMapping.put(variant.getDataDirectory(this), options);
+        setTmpFsMapping(tmpFsMapping);
+    }
+
+    @Override
+    protected void containerIsCreated(String containerId) {
+        endPhase(StartupTimings.Phase.CONTAINER_CREATE);
+        super.containerIsCreated(containerId);
+    }
+
+    @Override
+    protected void containerIsStarting(InspectContainerResponse containerInfo, boolean reused) {
+        endPhase(StartupTimings.Phase.CONTAINER_START);
+        reusedContainer = reused;
+        if (reused) {
+            log.info("Reusing existing container {}", containerInfo.getId());
+        }
+        super.containerIsStarting(containerInfo, reused);
+    }
+
+    @Override
+    protected void containerIsStarted(InspectContainerResponse containerInfo) {
+        super.containerIsStarted(containerInfo);
+        endPhase(StartupTimings.Phase.INIT_SCRIPTS);
+        if (!reusedContainer && isShouldBeReused()
+                && TestcontainersConfiguration.getInstance().environmentSupportsReuse()) {
+            // Captures the initialized state, to reset the database when the container is reused
+            takeSnapshot(REUSE_SNAPSHOT_NAME);
+        }
+        if (imageCache && !usingCachedImage) {
+            commitToImageCache();
+        }
+        StartupTimings timings = new StartupTimings(getDockerImageName(), startupPhaseDurations);
+        startupTimings = timings;
+        log.info("Firebird container started: {}", timings);
+        for (Consumer<StartupTimings> startupListener : startupListeners) {
+            try {
+                startupListener.accept(timings);
+            } catch (RuntimeException e) {
+                log.warn("Startup listener failed", e);
+            }
+        }
+    }
+
+    @Override
+    protected void runInitScriptIfRequired() {
+        if (usingCachedImage) {
+            log.debug("Skipping init scripts, the database of cached image {} is already initialized", imageCacheName);
+            return;
+        }
+        if (reusedContainer) {
+            log.debug("Skipping init scripts, the database of the reused container is already initialized");
+            return;
+        }
+        synchronized (initScriptTimings) {
+            initScriptTimings.clear();
+        }
+        for (int i = 0; i < initScriptPaths.size(); i++) {
+            String initScriptPath = initScriptPaths.get(i);
+            long startNanos = System.nanoTime();
+            switch (initScriptMode) {
+            case FIREBIRD:
+                runFirebirdInitScript(initScriptPath);
+                break;
+            case ISQL:
+                runIsqlInitScript(initScriptPath, i);
+                break;
+            default:
+                ScriptUtils.runInitScript(getDatabaseDelegate(), initScriptPath);
+                break;
+            }
+            Duration duration = Duration.ofNanos(System.nanoTime() - startNanos);
+            synchronized (initScriptTimings) {
+                initScriptTimings.put(initScriptPath, duration);
+            }
+            log.info("Executed init script {} in {} ms", initScriptPath, duration.toMillis());
+        }
+    }
+
+    private void runFirebirdInitScript(String initScriptPath) {
+        String script = loadInitScript(initScriptPath);
+        try (Connection connection = createConnection("")) {
+            FirebirdScriptRunner.run(connection, initScriptPath, script);
+        } catch (SQLException e) {
+            throw new ScriptUtils.UncategorizedScriptException("Failed to execute init script " + initScriptPath, e);
+        }
+    }
+
+    private void runIsqlInitScript(String initScriptPath, int index) {
+        String containerPath = INIT_SCRIPT_DIRECTORY + "/script-" + index + ".sql";
+        copyFileToContainer(Transferable.of(loadInitScript(initScriptPath).getBytes(StandardCharsets.UTF_8)),
+                containerPath);
+        execInContainerChecked("execute init script " + initScriptPath,
+                imageVariant.getToolDirectory() + "/isql -q -b -ch UTF8 -user " + quote(username)
+                + " -password " + quote(password) + " -i " + quote(containerPath) + " "
+                + quote("localhost:" + getDatabasePath(databaseName)));
+    }
+
+    private static String loadInitScript(String initScriptPath) {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        URL resource = classLoader != null ? classLoader.getResource(initScriptPath) : null;
+        if (resource == null) {
+            resource = FirebirdContainer.class.getClassLoader().getResource(initScriptPath);
+        }
+        if (resource == null) {
+            throw new ScriptUtils.ScriptLoadException("Could not load classpath init script: " + initScriptPath);
+        }
+        try (InputStream in = resource.openStream()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new ScriptUtils.ScriptLoadException("Could not load classpath init script: " + initScriptPath, e);
+        }
+    }
+
+    /**
+     * @return execution time of each init script of the last start, in order of execution; empty if no init scripts
+     * were executed
+     */
+    public Map<String, Duration> getInitScriptTimings() {
+        synchronized (initScriptTimings) {
+            return Collections.unmodifiableMap(new LinkedHashMap<>(initScriptTimings));
+        }
+    }
+
+    /**
+     * Commits the initialized container to the image cache.
+     * <p>
+     * Failure to create the cached image is logged, and does not fail the startup.
+     * </p>
+     */
+    private void commitToImageCache() {
+        long startNanos = System.nanoTime();
+        try {
+            String dataDirectory = imageVariant.getDataDirectory(this);
+            execInContainerChecked("copy database files to the image cache seed directory",
+                    "set -e; rm -rf " + quote(IMAGE_CACHE_SEED_DIRECTORY) + "; mkdir -p "
+                    + quote(IMAGE_CACHE_SEED_DIRECTORY) + "; cp -pR " + quote(dataDirectory + "/.") + " "
+                    + quote(IMAGE_CACHE_SEED_DIRECTORY));
+            Map<String, String> labels = new HashMap<>();
+            // The image inherits the labels of the container, and Docker cannot remove labels on commit, so clear the
+            // labels specific to this container (session id, reuse hashes, labels set with withLabel). Clearing the
+            // session id also prevents removal of the image at the end of the Testcontainers session.
+            for (String label : getContainerLabels()) {
+                if (label.startsWith("org.testcontainers") || getLabels().containsKey(label)) {
+                    labels.put(label, "");
+                }
+            }
+            labels.put(IMAGE_CACHE_REPOSITORY + ".source", firebirdImageName.asCanonicalNameString());
+            int separator = imageCacheName.lastIndexOf(':');
+            getDockerClient().commitCmd(getContainerId())
+                    .withRepository(imageCacheName.substring(0, separator))
+                    .withTag(imageCacheName.substring(separator + 1))
+                    .withLabels(labels)
+                    .exec();
+            log.info("Created cached image {} in {} ms", imageCacheName,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        } catch (RuntimeException e) {
+            log.warn("Could not create cached image {}", imageCacheName, e);
+        }
+    }
+
+    /**
+     * @return name of the cached image used or created for the configuration, or {@code null} without image cache
+     */
+    String getImageCacheName() {
+        return imageCacheName;
+    }
+
+    private Set<String> getContainerLabels() {
+        Set<String> labels = new HashSet<>(getLabels().keySet());
+        InspectContainerResponse containerInfo = getContainerInfo();
+        if (containerInfo != null && containerInfo.getConfig() != null
+                && containerInfo.getConfig().getLabels() != null) {
+            labels.addAll(containerInfo.getConfig().getLabels().keySet());
+        }
+        return labels;
+    }
+
+    private void startPhaseTiming() {
+        startupPhaseDurations.clear();
+        lastPhaseEndNanos = System.nanoTime();
+    }
+
+    /**
+     * Records the duration of {@code phase} as the time since the end of the previous phase.
+     */
+    private void endPhase(StartupTimings.Phase phase) {
+        long now = System.nanoTime();
+        startupPhaseDurations.put(phase, Duration.ofNanos(now - lastPhaseEndNanos));
+        lastPhaseEndNanos = now;
+    }
+
+    /**
+     * Timings of the last startup of this container.
+     *
+     * @return timings of the startup phases, or empty if the container has not been started yet
+     */
+    public Optional<StartupTimings> getStartupTimings() {
+        return Optional.ofNullable(startupTimings);
     }
 
     @Override
@@ -104,29 +711,63 @@ public class FirebirdContainer extends JdbcDatabaseContainer<FirebirdContainer>
 
     @Override
     public String getJdbcUrl() {
+        return getJdbcUrl(databaseName);
+    }
+
+    /**
+     * Returns the JDBC URL for another database in this container, for example one created with
+     * {@link #cloneDatabase()}.
+     * <p>
+     * The URL is constructed the same as {@link #getJdbcUrl()}, including the URL parameters.
+     * </p>
+     *
+     * @param databaseName
+     *         Database name (as passed to or returned by {@link #cloneDatabase(String)})
+     * @return JDBC URL for {@code databaseName}
+     */
+    public String getJdbcUrl(String databaseName) {
         String additionalUrlParams = constructUrlParameters("?", "&");
         return "jdbc:firebirdsql://" + getHost() + ":" + getMappedPort(FIREBIRD_PORT)
-                + "/" + getDatabaseName() + additionalUrlParams;
+                + "/" + resolveDatabaseName(databaseName) + additionalUrlParams;
+    }
+
+    /**
+     * Firebird version of the image, derived from the image tag when the container was created.
+     *
+     * @return Firebird version of the image
+     */
+    public FirebirdVersion getFirebirdVersion() {
+        return firebirdVersion;
     }
 
     @Override
     public String getDatabaseName() {
+        return resolveDatabaseName(databaseName);
+    }
+
+    /**
+     * Resolves the database name as it needs to be used in a connection string.
+     *
+     * @param databaseName
+     *         Database name
+     * @return database name or path to use in the connection string
+     */
+    private String resolveDatabaseName(String databaseName) {
         if (isRunning()) {
-            ImageVariant imageVariant = ImageVariant.of(getDockerImageName());
             switch (imageVariant) {
             case JACOBALBERTY:
-            if (isFirebird25Image()) {
-                // The 2.5 images of jacobalberty/firebird require an absolute path to access the database
-                // Provide this value only when the container is running
-                String databasePath = getEnvMap().getOrDefault("DBPATH", "/firebird/data");
-                return databasePath + "/" + databaseName;
-            }
-            return databaseName;
+                if (firebirdVersion.is(2, 5) && databaseName.charAt(0) != '/') {
+                    // The 2.5 images of jacobalberty/firebird require an absolute path to access the database
+                    // Provide this value only when the container is running
+                    String databasePath = getEnvMap().getOrDefault("DBPATH", JACOB_ALBERTY_DEFAULT_DATA_DIRECTORY);
+                    return databasePath + "/" + databaseName;
+                }
+                return databaseName;
             case PROJECT:
                 // The firebirdsql/firebird images require an absolute path to access the database
                 // Provide this value only when the container is running
                 if (databaseName.charAt(0) != '/') {
-                    return "/var/lib/firebird/data/" + databaseName;
+                    return PROJECT_DATA_DIRECTORY + "/" + databaseName;
                 }
                 return databaseName;
             }
@@ -134,11 +775,6 @@ public class FirebirdContainer extends JdbcDatabaseContainer<FirebirdContainer>
         return databaseName;
     }
 
-    private boolean isFirebird25Image() {
-        DockerImageName imageName = DockerImageName.parse(getDockerImageName());
-        return imageName.getVersionPart().startsWith("2.5");
-    }
-
     @Override
     public String getUsername() {
         return username;
@@ -204,81 +840,1279 @@ public class FirebirdContainer extends JdbcDatabaseContainer<FirebirdContainer>
     }
 
     /**
-     * Set the sysdba password.
+     * Sets a {@code firebird.conf} configuration option.
      * <p>
-     * If {@code username} is {@code "sysdba"} (case-insensitive), then {@code password} is used instead.
+     * This is only supported for the {@code firebirdsql/firebird} image, where it sets environment variable
+     * {@code FIREBIRD_CONF_<name>}. Starting a {@code jacobalberty/firebird} container with configuration options
+     * fails with an {@link IllegalStateException}. The name and value are not validated; prefer the typed methods
+     * like {@link #withServerMode(ServerMode)} for the options they cover.
      * </p>
      *
-     * @param sysdbaPassword Sysdba password
+     * @param name
+     *         Name of the configuration option (e.g. {@code "DefaultDbCachePages"})
+     * @param value
+     *         Value of the configuration option
      * @return this container
      */
-    public FirebirdContainer withSysdbaPassword(final String sysdbaPassword) {
-        this.sysdbaPassword = sysdbaPassword;
+    public FirebirdContainer withConfigurationOption(final String name, final String value) {
+        if (name == null || !CONFIGURATION_OPTION_NAME_PATTERN.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid configuration option name: " + name);
+        }
+        configurationOptions.put(name, Objects.requireNonNull(value, "value"));
         return self();
     }
 
-    @Override
-    protected void waitUntilContainerStarted() {
-        getWaitStrategy().waitUntilReady(this);
-        super.waitUntilContainerStarted();
+    /**
+     * Sets the server architecture ({@code ServerMode}).
+     *
+     * @param serverMode
+     *         Server mode
+     * @return this container
+     * @see #withConfigurationOption(String, String)
+     */
+    public FirebirdContainer withServerMode(final ServerMode serverMode) {
+        return withConfigurationOption("ServerMode", serverMode.getConfigValue());
     }
 
     /**
-     * Checks if the JVM meets the Jaybird (Firebird JDBC driver) requirements for encrypted connections.
-     * <p>
-     * Specifically, this checks if the ARC4 cipher can be used with 160 bit keys.
-     * </p>
+     * Sets the default number of pages in the page cache of a database ({@code DefaultDbCachePages}).
      *
-     * @return {@code true} if Jaybird will be able to support encrypted connections on this JVM.
+     * @param pages
+     *         Number of pages (must be positive)
+     * @return this container
+     * @see #withConfigurationOption(String, String)
      */
-    public static boolean isWireEncryptionSupported() {
-        try {
-            return Cipher.getMaxAllowedKeyLength("ARC4") >= ARC4_REQUIRED_BITS;
-        } catch (NoSuchAlgorithmException e) {
-            log.error("Cipher not found, JVM doesn't support encryption requirements", e);
-            return false;
-        }
+    public FirebirdContainer withDefaultDbCachePages(final int pages) {
+        return withConfigurationOption("DefaultDbCachePages", String.valueOf(requirePositive(pages, "pages")));
     }
 
-    private enum ImageVariant {
-        PROJECT {
-            @Override
-            void setUserAndPassword(FirebirdContainer container) {
-                container.addEnv("FIREBIRD_USER", container.username);
-                container.addEnv("FIREBIRD_PASSWORD", container.password);
-                if (FIREBIRD_SYSDBA.equalsIgnoreCase(container.username)) {
-                    container.addEnv("FIREBIRD_ROOT_PASSWORD", container.password);
-                } else if (container.sysdbaPassword != null) {
-                    container.addEnv("FIREBIRD_ROOT_PASSWORD", container.sysdbaPassword);
-                }
-            }
+    /**
+     * Sets the maximum amount of memory used for temporary space, such as sorts ({@code TempCacheLimit}).
+     *
+     * @param bytes
+     *         Size in bytes (must be positive)
+     * @return this container
+     * @see #withConfigurationOption(String, String)
+     */
+    public FirebirdContainer withTempCacheLimit(final long bytes) {
+        return withConfigurationOption("TempCacheLimit", String.valueOf(requirePositive(bytes, "bytes")));
+    }
 
-            @Override
-            void enableLegacyAuth(FirebirdContainer container) {
-                container.addEnv("FIREBIRD_USE_LEGACY_AUTH", "true");
-            }
+    /**
+     * Sets the threshold of the page cache size above which the file system cache is not used
+     * ({@code FileSystemCacheThreshold}).
+     *
+     * @param pages
+     *         Number of pages (must not be negative)
+     * @return this container
+     * @see #withConfigurationOption(String, String)
+     */
+    public FirebirdContainer withFileSystemCacheThreshold(final int pages) {
+        if (pages < 0) {
+            throw new IllegalArgumentException("pages must not be negative, was: " + pages);
+        }
+        return withConfigurationOption("FileSystemCacheThreshold", String.valueOf(pages));
+    }
 
-            @Override
-            void setWireCryptEnabled(FirebirdContainer container) {
-                container.addEnv("FIREBIRD_CONF_WireCrypt", "Enabled");
-            }
-        },
-        JACOBALBERTY {
-            @Override
-            void setUserAndPassword(FirebirdContainer container) {
-                if (FIREBIRD_SYSDBA.equalsIgnoreCase(container.username)) {
-                    container.addEnv("ISC_PASSWORD", container.password);
-                } else {
-                    container.addEnv("FIREBIRD_USER", container.username);
-                    container.addEnv("FIREBIRD_PASSWORD", container.password);
-                    if (container.sysdbaPassword != null) {
-                        container.addEnv("ISC_PASSWORD", container.sysdbaPassword);
-                    }
-                }
-            }
+    /**
+     * Sets the number of slots in the hash table of the lock manager ({@code LockHashSlots}).
+     *
+     * @param slots
+     *         Number of slots (must be positive, preferably a prime number)
+     * @return this container
+     * @see #withConfigurationOption(String, String)
+     */
+    public FirebirdContainer withLockHashSlots(final int slots) {
+        return withConfigurationOption("LockHashSlots", String.valueOf(requirePositive(slots, "slots")));
+    }
 
-            @Override
-            void enableLegacyAuth(FirebirdContainer container) {
+    /**
+     * Sets the default number of parallel workers for a connection ({@code ParallelWorkers}, Firebird 5.0+).
+     *
+     * @param workers
+     *         Number of workers (must be positive)
+     * @return this container
+     * @see #withMaxParallelWorkers(int)
+     * @see #withConfigurationOption(String, String)
+     */
+    public FirebirdContainer withParallelWorkers(final int workers) {
+        return withConfigurationOption("ParallelWorkers", String.valueOf(requirePositive(workers, "workers")));
+    }
+
+    /**
+     * Sets the maximum number of parallel workers for a connection ({@code MaxParallelWorkers}, Firebird 5.0+).
+     *
+     * @param workers
+     *         Number of workers (must be positive)
+     * @return this container
+     * @see #withParallelWorkers(int)
+     * @see #withConfigurationOption(String, String)
+     */
+    public FirebirdContainer withMaxParallelWorkers(final int workers) {
+        return withConfigurationOption("MaxParallelWorkers", String.valueOf(requirePositive(workers, "workers")));
+    }
+
+    /**
+     * Sets the CPUs the server process may use ({@code CpuAffinityMask}).
+     *
+     * @param mask
+     *         Bit mask of CPUs, where bit 0 is the first CPU (must be positive)
+     * @return this container
+     * @see #withConfigurationOption(String, String)
+     */
+    public FirebirdContainer withCpuAffinityMask(final long mask) {
+        return withConfigurationOption("CpuAffinityMask", String.valueOf(requirePositive(mask, "mask")));
+    }
+
+    /**
+     * Applies a performance profile for load testing, which limits the CPUs and memory of the container, and scales
+     * the Firebird configuration to those limits.
+     * <p>
+     * The container is limited to {@code cpuCount} CPUs and {@code memoryBytes} of memory (without additional swap).
+     * For the {@code firebirdsql/firebird} image, the following configuration options are derived from the limits,
+     * unless explicitly configured:
+     * </p>
+     * <ul>
+     * <li>{@code DefaultDbCachePages} &mdash; a quarter of the memory, assuming a page size of 8 KiB</li>
+     * <li>{@code TempCacheLimit} &mdash; an eighth of the memory</li>
+     * <li>{@code ParallelWorkers} and {@code MaxParallelWorkers} &mdash; {@code cpuCount} (Firebird 5.0+ only)</li>
+     * </ul>
+     * <p>
+     * For {@code jacobalberty/firebird}, only the CPU and memory limits are applied.
+     * </p>
+     *
+     * @param cpuCount
+     *         Number of CPUs (must be positive)
+     * @param memoryBytes
+     *         Memory limit in bytes (at least 64 MiB)
+     * @return this container
+     */
+    public FirebirdContainer withPerformanceProfile(final int cpuCount, final long memoryBytes) {
+        requirePositive(cpuCount, "cpuCount");
+        if (memoryBytes < PROFILE_MIN_MEMORY_BYTES) {
+            throw new IllegalArgumentException(
+                    "memoryBytes must be at least " + PROFILE_MIN_MEMORY_BYTES + ", was: " + memoryBytes);
+        }
+        if (profileCpuCount == 0) {
+            // Reads the latest profile when the container is created
+            withCreateContainerCmdModifier(this::applyResourceLimits);
+        }
+        this.profileCpuCount = cpuCount;
+        this.profileMemoryBytes = memoryBytes;
+        return self();
+    }
+
+    private static long requirePositive(long value, String name) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive, was: " + value);
+        }
+        return value;
+    }
+
+    private static int requirePositive(int value, String name) {
+        return (int) requirePositive((long) value, name);
+    }
+
+    /**
+     * Stores the database files in memory, by mounting the data directory of the image as a tmpfs.
+     * <p>
+     * The data directory is {@code /var/lib/firebird/data} for {@code firebirdsql/firebird}, and the value of
+     * environment variable {@code DBPATH} (default {@code /firebird/data}) for {@code jacobalberty/firebird}.
+     * Flushing writes to disk (e.g. with forced writes on commit) is effectively free on a tmpfs, which reduces
+     * commit latency for write-heavy tests. The contents of the database are lost when the container is stopped.
+     * </p>
+     * <p>
+     * The size of the tmpfs is not limited explicitly, which means Docker's default applies (usually half of the
+     * memory of the Docker host). Use {@link #withInMemoryStorage(String)} to specify a size.
+     * </p>
+     *
+     * @return this container
+     */
+    public FirebirdContainer withInMemoryStorage() {
+        this.inMemoryStorage = true;
+        this.inMemoryStorageSize = null;
+        return self();
+    }
+
+    /**
+     * Stores the database files in memory, using a tmpfs of the specified size.
+     *
+     * @param size
+     *         Maximum size of the tmpfs, in the format of the tmpfs {@code size} mount option (e.g. {@code "512m"}
+     *         or {@code "2g"})
+     * @return this container
+     * @see #withInMemoryStorage()
+     */
+    public FirebirdContainer withInMemoryStorage(final String size) {
+        if (size == null || size.trim().isEmpty()) {
+            throw new IllegalArgumentException("size is required");
+        }
+        this.inMemoryStorage = true;
+        this.inMemoryStorageSize = size.trim();
+        return self();
+    }
+
+    /**
+     * Restores the database from a backup file when the container starts, instead of letting the image create an empty
+     * database.
+     *
+     * @param backupFile
+     *         Backup file on the host
+     * @return this container
+     * @see #withRestoreFrom(MountableFile)
+     */
+    public FirebirdContainer withRestoreFrom(final Path backupFile) {
+        return withRestoreFrom(MountableFile.forHostPath(backupFile));
+    }
+
+    /**
+     * Restores the database from a backup file when the container starts, instead of letting the image create an empty
+     * database.
+     * <p>
+     * The backup file is copied into the container, and restored as the database of {@link #withDatabaseName(String)}
+     * after the server has started, and before the container is reported as started. Files with extension
+     * {@code .nbk} are restored with {@code nbackup -R} (only a level 0 backup), all other files with
+     * {@code gbak -c}. On Firebird 5.0 and higher with the {@code firebirdsql/firebird} image, gbak restores with
+     * parallel workers; the number of workers is {@code MaxParallelWorkers} which &mdash; if not configured
+     * explicitly &mdash; is set to the number of CPUs of the performance profile, or otherwise the number of available
+     * processors.
+     * </p>
+     * <p>
+     * The restore is performed with the embedded engine as {@code SYSDBA}, so the container user must have access to
+     * the objects in the backup (e.g. because the backup was made of a database owned by that user). Restoring a backup
+     * is a lot faster than replaying a large amount of DDL and DML with init scripts. Requires Firebird 3.0 or higher.
+     * </p>
+     *
+     * @param backupFile
+     *         Backup file (e.g. {@code MountableFile.forClasspathResource("fixture.fbk")})
+     * @return this container
+     */
+    public FirebirdContainer withRestoreFrom(final MountableFile backupFile) {
+        Path fileName = Paths.get(backupFile.getFilesystemPath()).getFileName();
+        if (fileName == null) {
+            throw new IllegalArgumentException("Not a file: " + backupFile.getDescription());
+        }
+        if (restoreFrom != null) {
+            // Replaces the backup file of a previous call
+            getCopyToFileContainerPathMap().remove(restoreFrom);
+        }
+        this.restoreFrom = backupFile;
+        this.restoreFileName = fileName.toString();
+        withCopyFileToContainer(backupFile, RESTORE_DIRECTORY + "/" + restoreFileName);
+        return self();
+    }
+
+    /**
+     * Sets the page size of the database created by the image.
+     * <p>
+     * Only supported by the {@code firebirdsql/firebird} image. When combined with {@link #withRestoreFrom(Path)},
+     * the backup is restored with this page size (not for nbackup files). Use the page size of production, as it
+     * affects the I/O and page cache behaviour.
+     * </p>
+     *
+     * @param pageSize
+     *         Page size in bytes: 4096, 8192, 16384 or 32768 (Firebird 4.0 and higher)
+     * @return this container
+     */
+    public FirebirdContainer withDatabasePageSize(final int pageSize) {
+        this.databasePageSize = DatabaseDefinition.requirePageSize(pageSize);
+        return self();
+    }
+
+    /**
+     * Sets the default character set of the database created by the image.
+     * <p>
+     * Only supported by the {@code firebirdsql/firebird} image, and not in combination with
+     * {@link #withRestoreFrom(Path)}.
+     * </p>
+     *
+     * @param characterSet
+     *         Default character set (e.g. {@code UTF8})
+     * @return this container
+     */
+    public FirebirdContainer withDatabaseDefaultCharacterSet(final String characterSet) {
+        this.databaseDefaultCharacterSet = DatabaseDefinition.requireIdentifier(characterSet, "characterSet");
+        return self();
+    }
+
+    /**
+     * Sets the SQL dialect of the database with {@code gfix -sql_dialect} when the container starts.
+     * <p>
+     * For dialect 1, the JDBC URL also connects with dialect 1 (connection property {@code sqlDialect}). Requires
+     * Firebird 3.0 or higher.
+     * </p>
+     *
+     * @param dialect
+     *         SQL dialect, {@code 1} or {@code 3}
+     * @return this container
+     */
+    public FirebirdContainer withDatabaseDialect(final int dialect) {
+        this.databaseDialect = DatabaseDefinition.requireDialect(dialect);
+        return self();
+    }
+
+    /**
+     * Enables or disables forced writes of the database with {@code gfix -write} when the container starts.
+     * <p>
+     * With forced writes disabled, commits are not flushed to disk, which makes write-heavy tests faster, but is not
+     * representative of production I/O. Requires Firebird 3.0 or higher.
+     * </p>
+     *
+     * @param forcedWrites
+     *         {@code true} for synchronous writes, {@code false} for asynchronous writes
+     * @return this container
+     */
+    public FirebirdContainer withForcedWrites(final boolean forcedWrites) {
+        this.forcedWrites = forcedWrites;
+        return self();
+    }
+
+    /**
+     * Sets the sweep interval of the database with {@code gfix -housekeeping} when the container starts.
+     * <p>
+     * Requires Firebird 3.0 or higher.
+     * </p>
+     *
+     * @param sweepInterval
+     *         Number of transactions between automatic sweeps, {@code 0} to disable automatic sweep
+     * @return this container
+     */
+    public FirebirdContainer withSweepInterval(final int sweepInterval) {
+        if (sweepInterval < 0) {
+            throw new IllegalArgumentException("sweepInterval must not be negative, was: " + sweepInterval);
+        }
+        this.sweepInterval = sweepInterval;
+        return self();
+    }
+
+    /**
+     * Creates an additional database with default options when the container starts.
+     *
+     * @param databaseName
+     *         Name of the database; a relative name is created in the data directory of the container
+     * @return this container
+     * @see #withAdditionalDatabase(DatabaseDefinition)
+     */
+    public FirebirdContainer withAdditionalDatabase(final String databaseName) {
+        return withAdditionalDatabase(new DatabaseDefinition(databaseName));
+    }
+
+    /**
+     * Creates an additional database when the container starts.
+     * <p>
+     * The additional databases and users are created in a single pass after the server has started, and before the
+     * container is reported as started, using the embedded engine of {@code isql}. The databases are owned by the user
+     * of the container ({@link #withUsername(String)}). Use {@link #getJdbcUrl(String)} to connect to them. A database
+     * file which already exists is not recreated. Requires Firebird 3.0 or higher.
+     * </p>
+     *
+     * @param databaseDefinition
+     *         Definition of the database
+     * @return this container
+     */
+    public FirebirdContainer withAdditionalDatabase(final DatabaseDefinition databaseDefinition) {
+        Objects.requireNonNull(databaseDefinition, "databaseDefinition");
+        if (databaseDefinition.getDatabaseName().equals(databaseName)) {
+            throw new IllegalArgumentException("Database " + databaseName + " is the database of the container");
+        }
+        additionalDatabases.add(databaseDefinition);
+        return self();
+    }
+
+    /**
+     * Creates (or alters) an additional user when the container starts.
+     * <p>
+     * The user is created with the default user manager of the server. See
+     * {@link #withAdditionalDatabase(DatabaseDefinition)} for details. Requires Firebird 3.0 or higher.
+     * </p>
+     *
+     * @param username
+     *         Name of the user (a regular identifier)
+     * @param password
+     *         Password of the user
+     * @return this container
+     */
+    public FirebirdContainer withAdditionalUser(final String username, final String password) {
+        DatabaseDefinition.requireIdentifier(username, "username");
+        if (password == null || password.isEmpty()) {
+            throw new IllegalArgumentException("password is required");
+        }
+        additionalUsers.put(username, password);
+        return self();
+    }
+
+    /**
+     * Caches the initialized container as a local Docker image, and uses that image on subsequent starts.
+     * <p>
+     * After the first start &mdash; including creation of the user and database by the image, restoring a backup
+     * ({@link #withRestoreFrom(MountableFile)}) and running init scripts &mdash; the container is committed to a local
+     * image {@code firebird-testcontainers-cache:<hash>}, where the hash is derived from the image name, the
+     * environment variables, the database name, and the contents of the init scripts and backup file. Later starts
+     * with the same configuration (also in other JVMs) use the cached image, with the database files already in place,
+     * and skip the init scripts and restore. Changing a script or an option results in a new cached image.
+     * </p>
+     * <p>
+     * The entrypoint of the image still runs on each start, but finds the database already created. The cached images
+     * are not removed automatically; remove them with {@code docker image rm} when no longer needed. As the image tag
+     * of the Firebird image is part of the hash, not its digest, remove the cached images after pulling an updated
+     * image with the same tag.
+     * </p>
+     *
+     * @return this container
+     */
+    public FirebirdContainer withImageCache() {
+        if (!imageCache) {
+            imageCache = true;
+            withCreateContainerCmdModifier(cmd -> {
+                if (usingCachedImage) {
+                    cmd.withEntrypoint("sh", "-c").withCmd(cachedImageCommand);
+                }
+            });
+        }
+        return self();
+    }
+
+    @Override
+    public FirebirdContainer withInitScript(String initScriptPath) {
+        initScriptPaths.clear();
+        initScriptPaths.add(initScriptPath);
+        return super.withInitScript(initScriptPath);
+    }
+
+    @Override
+    public FirebirdContainer withInitScripts(Iterable<String> initScriptPaths) {
+        this.initScriptPaths.clear();
+        initScriptPaths.forEach(this.initScriptPaths::add);
+        return super.withInitScripts(initScriptPaths);
+    }
+
+    /**
+     * Sets how init scripts are executed.
+     * <p>
+     * The default, {@link InitScriptMode#JDBC}, uses the generic script support of Testcontainers.
+     * {@link InitScriptMode#FIREBIRD} supports {@code SET TERM} for PSQL, and executes DML in batches in a few
+     * transactions, which is a lot faster for scripts with many inserts. {@link InitScriptMode#ISQL} executes the
+     * script with {@code isql} inside the container in one round trip. The execution time of each script is logged,
+     * and available with {@link #getInitScriptTimings()}.
+     * </p>
+     *
+     * @param initScriptMode
+     *         Mode of executing init scripts
+     * @return this container
+     */
+    public FirebirdContainer withInitScriptMode(final InitScriptMode initScriptMode) {
+        this.initScriptMode = Objects.requireNonNull(initScriptMode, "initScriptMode");
+        return self();
+    }
+
+    /**
+     * Sets the maximum number of connections of the data source returned by {@link #getDataSource()} (default 10).
+     *
+     * @param maximumPoolSize
+     *         Maximum number of connections (must be positive)
+     * @return this container
+     */
+    public FirebirdContainer withDataSourcePoolSize(final int maximumPoolSize) {
+        this.dataSourcePoolSize = requirePositive(maximumPoolSize, "maximumPoolSize");
+        return self();
+    }
+
+    /**
+     * Returns a pooled data source for the database of this container.
+     * <p>
+     * Connecting to Firebird includes authentication and possibly wire encryption, which is relatively expensive. The
+     * data source keeps connections open, so tests can obtain a connection without that cost. It uses
+     * {@link #getJdbcUrl()} and the credentials of this container, and has a maximum of
+     * {@link #withDataSourcePoolSize(int)} connections. If HikariCP is on the classpath, a {@code HikariDataSource} is
+     * returned; otherwise, a minimal internal pool, which rolls back active transactions and resets auto-commit,
+     * read-only and transaction isolation when a connection is closed.
+     * </p>
+     * <p>
+     * The data source is created on the first call, and closed when the container is stopped. Close all connections
+     * before using {@link #restoreSnapshot(String)}, which also means the data source should not be used across a
+     * restore.
+     * </p>
+     *
+     * @return pooled data source
+     * @throws IllegalStateException
+     *         if the container is not running, or if the data source could not be created
+     */
+    public synchronized DataSource getDataSource() {
+        if (!isRunning()) {
+            throw new IllegalStateException("Container is not running");
+        }
+        if (dataSource == null) {
+            dataSource = createDataSource();
+        }
+        return dataSource;
+    }
+
+    private DataSource createDataSource() {
+        String poolName = "firebird-" + getContainerId().substring(0, 12);
+        try {
+            Class<?> configClass = Class.forName(HIKARI_CONFIG_CLASS, true, FirebirdContainer.class.getClassLoader());
+            Object config = configClass.getConstructor().newInstance();
+            configClass.getMethod("setDriverClassName", String.class).invoke(config, getDriverClassName());
+            configClass.getMethod("setJdbcUrl", String.class).invoke(config, getJdbcUrl());
+            configClass.getMethod("setUsername", String.class).invoke(config, getUsername());
+            configClass.getMethod("setPassword", String.class).invoke(config, getPassword());
+            configClass.getMethod("setMaximumPoolSize", int.class).invoke(config, dataSourcePoolSize);
+            configClass.getMethod("setPoolName", String.class).invoke(config, poolName);
+            Class<?> dataSourceClass = Class.forName(HIKARI_DATA_SOURCE_CLASS, true, configClass.getClassLoader());
+            log.debug("Using HikariCP for data source {}", poolName);
+            return (DataSource) dataSourceClass.getConstructor(configClass).newInstance(config);
+        } catch (ClassNotFoundException | LinkageError e) {
+            log.debug("HikariCP not available, using internal pool for data source {}", poolName);
+            return new PooledDataSource(() -> createConnection(""), dataSourcePoolSize);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Could not create HikariCP data source", e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create HikariCP data source", e);
+        }
+    }
+
+    private synchronized void closeDataSource() {
+        if (dataSource instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) dataSource).close();
+            } catch (Exception e) {
+                log.warn("Could not close data source", e);
+            }
+        }
+        dataSource = null;
+    }
+
+    @Override
+    public void stop() {
+        closeDataSource();
+        super.stop();
+    }
+
+    /**
+     * Starts the container without blocking the calling thread.
+     * <p>
+     * The container (and its dependencies, see {@code dependsOn}) is started on the executor of
+     * {@link Startables#deepStart(org.testcontainers.lifecycle.Startable...)}. This allows starting Firebird
+     * concurrently with other containers or the initialization of the application under test. If the start fails, the
+     * future completes exceptionally with the exception thrown by {@link #start()}.
+     * </p>
+     *
+     * @return future which completes with this container when it has started
+     */
+    public CompletableFuture<FirebirdContainer> startAsync() {
+        return Startables.deepStart(this).thenApply(ignored -> self());
+    }
+
+    /**
+     * Starts the container on {@code executor} without blocking the calling thread.
+     * <p>
+     * Dependencies of the container are started by {@link #start()} itself, on the same thread.
+     * </p>
+     *
+     * @param executor
+     *         Executor to start the container on
+     * @return future which completes with this container when it has started
+     * @see #startAsync()
+     */
+    public CompletableFuture<FirebirdContainer> startAsync(final Executor executor) {
+        Objects.requireNonNull(executor, "executor");
+        return CompletableFuture.runAsync(this::start, executor).thenApply(ignored -> self());
+    }
+
+    /**
+     * Registers a listener which is notified with the timings of the startup phases each time the container has
+     * started.
+     * <p>
+     * Can be used to record startup performance, for example to detect regressions between image versions. The
+     * timings of the last startup are also available through {@link #getStartupTimings()}.
+     * </p>
+     *
+     * @param startupListener
+     *         Listener to notify
+     * @return this container
+     */
+    public FirebirdContainer withStartupListener(final Consumer<StartupTimings> startupListener) {
+        startupListeners.add(Objects.requireNonNull(startupListener, "startupListener"));
+        return self();
+    }
+
+    /**
+     * Set the sysdba password.
+     * <p>
+     * If {@code username} is {@code "sysdba"} (case-insensitive), then {@code password} is used instead.
+     * </p>
+     *
+     * @param sysdbaPassword Sysdba password
+     * @return this container
+     */
+    public FirebirdContainer withSysdbaPassword(final String sysdbaPassword) {
+        this.sysdbaPassword = sysdbaPassword;
+        return self();
+    }
+
+    /**
+     * Waits until the container is started.
+     * <p>
+     * By default, this first waits until the Firebird server responds to a protocol connect request, and then
+     * confirms availability of the database with a JDBC connection. Normally, only one JDBC connection attempt is
+     * needed.
+     * </p>
+     */
+    @Override
+    protected void waitUntilContainerStarted() {
+        getWaitStrategy().waitUntilReady(this);
+        endPhase(StartupTimings.Phase.SERVER_READY);
+        if (reusedContainer) {
+            resetReusedDatabase();
+            endPhase(StartupTimings.Phase.DATABASE_RESTORE);
+        } else if (restoreFrom != null) {
+            restoreDatabase();
+            endPhase(StartupTimings.Phase.DATABASE_RESTORE);
+        }
+        if (!reusedContainer
+                && (hasDatabaseProperties() || !additionalDatabases.isEmpty() || !additionalUsers.isEmpty())) {
+            provisionDatabasesAndUsers();
+            endPhase(StartupTimings.Phase.DATABASE_PROVISIONING);
+        }
+        super.waitUntilContainerStarted();
+        endPhase(StartupTimings.Phase.DATABASE_READY);
+    }
+
+    /**
+     * Resets the database of a reused container to the state after its first start.
+     */
+    private void resetReusedDatabase() {
+        try {
+            restoreSnapshot(REUSE_SNAPSHOT_NAME);
+            log.debug("Reset database {} of reused container", databaseName);
+        } catch (IllegalStateException e) {
+            log.warn("Could not reset database {} of reused container, continuing with its current state",
+                    databaseName, e);
+        }
+    }
+
+    /**
+     * Restores the database from the backup file, unless the database already exists (e.g. in a reused container).
+     */
+    private void restoreDatabase() {
+        ImageVariant variant = imageVariant;
+        String backupPath = RESTORE_DIRECTORY + "/" + restoreFileName;
+        String databasePath = getDatabasePath(databaseName);
+        String restoreCommand;
+        if (isNbackupFile(restoreFileName)) {
+            restoreCommand = variant.getToolDirectory() + "/nbackup -R " + quote(databasePath) + " "
+                    + quote(backupPath);
+        } else {
+            restoreCommand = variant.getToolDirectory() + "/gbak -c"
+                    + (restoreParallelWorkers > 1 ? " -par " + restoreParallelWorkers : "")
+                    + (databasePageSize != null ? " -page_size " + databasePageSize : "")
+                    + " -user " + FIREBIRD_SYSDBA + " " + quote(backupPath) + " " + quote(databasePath);
+        }
+        // The copied file has the permissions of the source, but the restore runs as the user of the server
+        execInContainerChecked(null, "prepare restore of " + restoreFileName, "chmod a+r " + quote(backupPath));
+        execInContainerChecked(FIREBIRD_OS_USER, "restore " + restoreFileName,
+                "set -e; if [ ! -e " + quote(databasePath) + " ]; then " + restoreCommand + "; fi");
+        log.info("Restored database {} from {}", databaseName, restoreFileName);
+    }
+
+    /**
+     * Changes the properties of the database with {@code gfix}, and creates the additional users and databases with
+     * {@code isql}, using the embedded engine.
+     */
+    private void provisionDatabasesAndUsers() {
+        String isql = imageVariant.getToolDirectory() + "/isql -q -b -i ";
+        StringBuilder command = new StringBuilder("set -e");
+        if (hasDatabaseProperties()) {
+            String gfix = imageVariant.getToolDirectory() + "/gfix -user " + FIREBIRD_SYSDBA + " ";
+            String databasePath = quote(getDatabasePath(databaseName));
+            if (databaseDialect != null) {
+                command.append("; ").append(gfix).append("-sql_dialect ").append(databaseDialect)
+                        .append(" ").append(databasePath);
+            }
+            if (forcedWrites != null) {
+                command.append("; ").append(gfix).append("-write ").append(forcedWrites ? "sync" : "async")
+                        .append(" ").append(databasePath);
+            }
+            if (sweepInterval != null) {
+                command.append("; ").append(gfix).append("-housekeeping ").append(sweepInterval)
+                        .append(" ").append(databasePath);
+            }
+        }
+        if (!additionalUsers.isEmpty()) {
+            StringBuilder script = new StringBuilder()
+                    .append("connect ").append(sqlString(getDatabasePath(databaseName)))
+                    .append(" user ").append(sqlString(FIREBIRD_SYSDBA)).append(";\n");
+            additionalUsers.forEach((user, userPassword) -> script
+                    .append("create or alter user ").append(user)
+                    .append(" password ").append(sqlString(userPassword)).append(";\n"));
+            script.append("commit;\n");
+            String scriptPath = PROVISIONING_DIRECTORY + "/users.sql";
+            copyFileToContainer(Transferable.of(script.toString()), scriptPath);
+            command.append("; ").append(isql).append(quote(scriptPath));
+        }
+        for (int i = 0; i < additionalDatabases.size(); i++) {
+            DatabaseDefinition definition = additionalDatabases.get(i);
+            String databasePath = getDatabasePath(definition.getDatabaseName());
+            StringBuilder script = new StringBuilder()
+                    .append("set sql dialect ").append(definition.getDialect()).append(";\n")
+                    .append("create database ").append(sqlString(databasePath))
+                    .append(" user ").append(sqlString(username));
+            if (definition.getPageSize() != null) {
+                script.append(" page_size ").append(definition.getPageSize());
+            }
+            if (definition.getDefaultCharacterSet() != null) {
+                script.append(" default character set ").append(definition.getDefaultCharacterSet());
+            }
+            script.append(";\n");
+            definition.getRoles().forEach((role, grantees) -> {
+                script.append("create role ").append(role).append(";\n");
+                for (String grantee : grantees) {
+                    script.append("grant ").append(role).append(" to user ").append(grantee).append(";\n");
+                }
+            });
+            script.append("commit;\n");
+            String scriptPath = PROVISIONING_DIRECTORY + "/database-" + i + ".sql";
+            copyFileToContainer(Transferable.of(script.toString()), scriptPath);
+            command.append("; if [ ! -e ").append(quote(databasePath)).append(" ]; then ")
+                    .append(isql).append(quote(scriptPath)).append("; fi");
+        }
+        execInContainerChecked(FIREBIRD_OS_USER, "provision databases and users", command.toString());
+        log.info("Provisioned database {}, additional databases {} and users {}", databaseName,
+                additionalDatabases.size(), additionalUsers.keySet());
+    }
+
+    /**
+     * Takes a snapshot of the database file.
+     * <p>
+     * The snapshot is a copy of the database file, stored inside the container next to the database. An existing
+     * snapshot with the same name is replaced. Use {@link #restoreSnapshot(String)} to reset the database to the state
+     * of the snapshot.
+     * </p>
+     * <p>
+     * All connections to the database should be closed before taking a snapshot, otherwise the snapshot may not
+     * contain all committed changes.
+     * </p>
+     *
+     * @param snapshotName
+     *         Name of the snapshot (only letters, digits, {@code _} and {@code -} are allowed)
+     * @throws IllegalStateException
+     *         if the container is not running, or if the snapshot could not be taken
+     */
+    public void takeSnapshot(String snapshotName) {
+        String databasePath = getDatabasePath(databaseName);
+        String snapshotPath = getSnapshotPath(databasePath, snapshotName);
+        execInContainerChecked("take snapshot " + snapshotName,
+                "set -e; mkdir -p " + quote(parentOf(snapshotPath))
+                + "; cp -p " + quote(databasePath) + " " + quote(snapshotPath + ".tmp")
+                + "; mv -f " + quote(snapshotPath + ".tmp") + " " + quote(snapshotPath));
+    }
+
+    /**
+     * Restores the database file from a snapshot previously taken with {@link #takeSnapshot(String)}.
+     * <p>
+     * The database file is replaced by a copy of the snapshot, so the snapshot can be restored multiple times.
+     * </p>
+     * <p>
+     * All connections to the database <em>must</em> be closed before restoring a snapshot (this includes connections
+     * held by a connection pool). Connections made while the old database file is still open on the server will
+     * continue to use the old file.
+     * </p>
+     *
+     * @param snapshotName
+     *         Name of the snapshot
+     * @throws IllegalStateException
+     *         if the container is not running, if the snapshot does not exist, or if the snapshot could not be restored
+     */
+    public void restoreSnapshot(String snapshotName) {
+        String databasePath = getDatabasePath(databaseName);
+        String snapshotPath = getSnapshotPath(databasePath, snapshotName);
+        execInContainerChecked("restore snapshot " + snapshotName,
+                "set -e; cp -p " + quote(snapshotPath) + " " + quote(databasePath + ".restore")
+                + "; mv -f " + quote(databasePath + ".restore") + " " + quote(databasePath));
+    }
+
+    /**
+     * Creates a new database as a copy of the database of this container.
+     * <p>
+     * The database of this container serves as the template: prepare it once (e.g. with init scripts), and then
+     * clone it for each test, so tests can run isolated from each other against a single Firebird server. The new
+     * database gets a unique name derived from the database name of this container. Use
+     * {@link #getJdbcUrl(String)} to obtain the JDBC URL of the clone.
+     * </p>
+     * <p>
+     * All connections to the template database should be closed before cloning, otherwise the clone may not contain
+     * all committed changes. Connections to other clones do not need to be closed.
+     * </p>
+     *
+     * @return name of the new database
+     * @throws IllegalStateException
+     *         if the container is not running, or if the database could not be cloned
+     * @see #cloneDatabase(String)
+     */
+    public String cloneDatabase() {
+        String targetDatabaseName = databaseName + "_clone" + cloneCounter.incrementAndGet();
+        cloneDatabase(targetDatabaseName);
+        return targetDatabaseName;
+    }
+
+    /**
+     * Creates a new database with the specified name as a copy of the database of this container.
+     * <p>
+     * An existing database file with the same name is replaced. See {@link #cloneDatabase()} for details.
+     * </p>
+     *
+     * @param targetDatabaseName
+     *         Name of the new database; a relative name is created in the same directory as the database of this
+     *         container
+     * @throws IllegalStateException
+     *         if the container is not running, or if the database could not be cloned
+     */
+    public void cloneDatabase(String targetDatabaseName) {
+        String databasePath = getDatabasePath(databaseName);
+        String targetPath = getDatabasePath(targetDatabaseName);
+        execInContainerChecked("clone database to " + targetDatabaseName,
+                "set -e; cp -p " + quote(databasePath) + " " + quote(targetPath + ".tmp")
+                + "; mv -f " + quote(targetPath + ".tmp") + " " + quote(targetPath));
+    }
+
+    /**
+     * Deletes a database created with {@link #cloneDatabase()} or {@link #cloneDatabase(String)}.
+     * <p>
+     * All connections to the database must be closed before it is deleted.
+     * </p>
+     *
+     * @param clonedDatabaseName
+     *         Name of the cloned database
+     * @throws IllegalArgumentException
+     *         if {@code clonedDatabaseName} is the database of this container
+     * @throws IllegalStateException
+     *         if the container is not running, or if the database could not be deleted
+     */
+    public void deleteClonedDatabase(String clonedDatabaseName) {
+        String targetPath = getDatabasePath(clonedDatabaseName);
+        if (targetPath.equals(getDatabasePath(databaseName))) {
+            throw new IllegalArgumentException("Cannot delete the template database " + databaseName);
+        }
+        execInContainerChecked("delete database " + clonedDatabaseName, "rm -f " + quote(targetPath));
+    }
+
+    /**
+     * Captures the current database-level statistics from the monitoring tables.
+     * <p>
+     * The counters are reset by the server when the last connection to the database is closed, so comparing snapshots
+     * is only meaningful while a connection is kept open in between; prefer
+     * {@link #measureMonitoringStatistics(MonitoringStatistics.Block)}.
+     * </p>
+     *
+     * @return current statistics
+     * @throws SQLException
+     *         for errors connecting or querying the monitoring tables
+     */
+    public MonitoringStatistics captureMonitoringStatistics() throws SQLException {
+        try (Connection connection = createConnection("")) {
+            return MonitoringStatistics.capture(connection);
+        }
+    }
+
+    /**
+     * Runs {@code block} and returns the database-level statistics of the monitoring tables accumulated while it ran.
+     * <p>
+     * A monitoring connection is kept open while the block runs, so the server does not reset the counters. The
+     * statistics include the activity of all connections to the database, and a small overhead of reading the
+     * monitoring tables. Example:
+     * </p>
+     * <pre>{@code
+     * MonitoringStatistics statistics = container.measureMonitoringStatistics(() -> repository.findByName("x"));
+     * assertEquals(0, statistics.getRecordSequentialReads(), "no natural scan expected");
+     * }</pre>
+     *
+     * @param block
+     *         Code to measure
+     * @param <E>
+     *         Exception type thrown by the block
+     * @return statistics of the block
+     * @throws SQLException
+     *         for errors connecting or querying the monitoring tables
+     * @throws E
+     *         exception thrown by {@code block}
+     */
+    public <E extends Exception> MonitoringStatistics measureMonitoringStatistics(
+            final MonitoringStatistics.Block<E> block) throws SQLException, E {
+        Objects.requireNonNull(block, "block");
+        try (Connection connection = createConnection("")) {
+            MonitoringStatistics before = MonitoringStatistics.capture(connection);
+            block.run();
+            return MonitoringStatistics.capture(connection).minus(before);
+        }
+    }
+
+    /**
+     * Starts a trace session which logs all executed statements, with plan and performance counters.
+     *
+     * @param eventConsumer
+     *         Consumer of the trace events
+     * @return started trace session, to be closed to stop tracing
+     * @see #startTraceSession(String, Consumer)
+     * @see TraceSession#DEFAULT_CONFIGURATION
+     */
+    public TraceSession startTraceSession(final Consumer<TraceEvent> eventConsumer) {
+        return startTraceSession(TraceSession.DEFAULT_CONFIGURATION, eventConsumer);
+    }
+
+    /**
+     * Starts a user trace session with a trace configuration.
+     * <p>
+     * The session is started with {@code fbtracemgr} inside the container, and its output is streamed to
+     * {@code eventConsumer}. If the username is {@code sysdba} or a sysdba password is set
+     * ({@link #withSysdbaPassword(String)}), the session runs as {@code SYSDBA} and can trace all connections;
+     * otherwise, it runs as the user of the container, and only traces the connections of that user. Use
+     * {@link TraceEvent#toStatement()} to obtain the timings and plan of executed statements.
+     * </p>
+     * <p>
+     * Requires Firebird 3.0 or higher.
+     * </p>
+     *
+     * @param traceConfiguration
+     *         Trace configuration in the format of {@code fbtrace.conf} of Firebird 3.0 and higher
+     * @param eventConsumer
+     *         Consumer of the trace events
+     * @return started trace session, to be closed to stop tracing
+     * @throws IllegalStateException
+     *         if the container is not running, the Firebird version is not supported, or the session could not be
+     *         started
+     */
+    public TraceSession startTraceSession(final String traceConfiguration, final Consumer<TraceEvent> eventConsumer) {
+        Objects.requireNonNull(traceConfiguration, "traceConfiguration");
+        Objects.requireNonNull(eventConsumer, "eventConsumer");
+        if (!isRunning()) {
+            throw new IllegalStateException("Container is not running");
+        }
+        if (!firebirdVersion.isAtLeast(3)) {
+            throw new IllegalStateException("Trace sessions require Firebird 3.0 or higher");
+        }
+        String configurationPath = TRACE_DIRECTORY + "/trace-" + traceCounter.incrementAndGet() + ".conf";
+        copyFileToContainer(Transferable.of(traceConfiguration), configurationPath);
+
+        List<String> startCommand = getTraceManagerCommand();
+        startCommand.addAll(Arrays.asList("-start", "-name", "testcontainers", "-config", configurationPath));
+        TraceSession traceSession = new TraceSession(eventConsumer, this::stopTraceSession);
+        String execId = getDockerClient().execCreateCmd(getContainerId())
+                .withAttachStdout(true)
+                .withAttachStderr(true)
+                .withCmd(startCommand.toArray(new String[0]))
+                .exec()
+                .getId();
+        getDockerClient().execStartCmd(execId).exec(traceSession.getCallback());
+        try {
+            traceSession.awaitStarted(TRACE_START_TIMEOUT);
+        } catch (IllegalStateException e) {
+            killTraceManager(configurationPath, e);
+            throw e;
+        }
+        return traceSession;
+    }
+
+    /**
+     * Kills the {@code fbtracemgr} process started with {@code configurationPath}, if it is still running.
+     * <p>
+     * The server ends a trace session when the service attachment of the trace manager which started it is closed, so
+     * this also ends the trace session if the server started it after the startup timeout.
+     * </p>
+     *
+     * @param configurationPath
+     *         path of the trace configuration in the container
+     * @param startFailure
+     *         exception of the failed start, to add failures of killing the process to
+     */
+    private void killTraceManager(String configurationPath, Exception startFailure) {
+        try {
+            // Skips the shell itself, as its command line also contains the path
+            execInContainerChecked("kill trace manager",
+                    "for dir in /proc/[0-9]*; do pid=${dir#/proc/}; "
+                            + "if [ \"$pid\" != \"$$\" ] && grep -qF -- " + quote(configurationPath)
+                            + " \"$dir/cmdline\" 2>/dev/null; then kill \"$pid\" 2>/dev/null; fi; done; true");
+        } catch (IllegalStateException e) {
+            startFailure.addSuppressed(e);
+        }
+    }
+
+    private void stopTraceSession(int sessionId) {
+        List<String> stopCommand = getTraceManagerCommand();
+        stopCommand.addAll(Arrays.asList("-stop", "-id", String.valueOf(sessionId)));
+        try {
+            Container.ExecResult result = execInContainer(stopCommand.toArray(new String[0]));
+            if (result.getExitCode() != 0) {
+                throw new IllegalStateException("Could not stop trace session " + sessionId + " (exit code "
+                        + result.getExitCode() + "): " + result.getStderr());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not stop trace session " + sessionId, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while trying to stop trace session " + sessionId, e);
+        }
+    }
+
+    /**
+     * @return command line of {@code fbtracemgr} connecting to the service manager of the server
+     */
+    private List<String> getTraceManagerCommand() {
+        String traceUser;
+        String tracePassword;
+        if (FIREBIRD_SYSDBA.equalsIgnoreCase(username)) {
+            traceUser = FIREBIRD_SYSDBA;
+            tracePassword = password;
+        } else if (sysdbaPassword != null) {
+            traceUser = FIREBIRD_SYSDBA;
+            tracePassword = sysdbaPassword;
+        } else {
+            traceUser = username;
+            tracePassword = password;
+        }
+        // Through the network server, as the embedded engine of fbtracemgr would only trace itself
+        return new ArrayList<>(Arrays.asList(imageVariant.getToolDirectory() + "/fbtracemgr",
+                "-se", "localhost:service_mgr", "-user", traceUser, "-password", tracePassword));
+    }
+
+    /**
+     * @param databaseName
+     *         Database name
+     * @return absolute path of the database file inside the container
+     */
+    private String getDatabasePath(String databaseName) {
+        if (!isRunning()) {
+            throw new IllegalStateException("Container is not running");
+        }
+        if (databaseName == null || databaseName.isEmpty()) {
+            throw new IllegalArgumentException("Database name is required");
+        }
+        if (databaseName.charAt(0) == '/') {
+            return databaseName;
+        }
+        return imageVariant.getDataDirectory(this) + "/" + databaseName;
+    }
+
+    private static String getSnapshotPath(String databasePath, String snapshotName) {
+        if (snapshotName == null || !SNAPSHOT_NAME_PATTERN.matcher(snapshotName).matches()) {
+            throw new IllegalArgumentException("Invalid snapshot name: " + snapshotName);
+        }
+        return parentOf(databasePath) + "/" + SNAPSHOT_DIRECTORY + "/" + snapshotName;
+    }
+
+    private static String parentOf(String path) {
+        int lastSlash = path.lastIndexOf('/');
+        return lastSlash <= 0 ? "/" : path.substring(0, lastSlash);
+    }
+
+    /**
+     * Quotes a value as an SQL string literal.
+     */
+    private static String sqlString(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+
+    /**
+     * Quotes a value for use in a shell command.
+     */
+    private static String quote(String value) {
+        return "'" + value.replace("'", "'\\''") + "'";
+    }
+
+    /**
+     * Executes a shell command in the container, and checks its exit code.
+     *
+     * @param description
+     *         description of the action for error messages
+     * @param shellCommand
+     *         command to execute with {@code sh -c}
+     * @return result of the execution
+     * @throws IllegalStateException
+     *         if the command could not be executed or exited with a non-zero exit code
+     */
+    private Container.ExecResult execInContainerChecked(String description, String shellCommand) {
+        return execInContainerChecked(null, description, shellCommand);
+    }
+
+    /**
+     * Executes a shell command in the container as {@code user}, and checks its exit code.
+     *
+     * @param user
+     *         user to execute the command as, or {@code null} for the default user of the container
+     * @param description
+     *         description of the action for error messages
+     * @param shellCommand
+     *         command to execute with {@code sh -c}
+     * @return result of the execution
+     * @throws IllegalStateException
+     *         if the command could not be executed or exited with a non-zero exit code
+     */
+    private Container.ExecResult execInContainerChecked(String user, String description, String shellCommand) {
+        try {
+            Container.ExecResult result = execInContainer(ExecConfig.builder()
+                    .user(user)
+                    .command(new String[] { "sh", "-c", shellCommand })
+                    .build());
+            if (result.getExitCode() != 0) {
+                throw new IllegalStateException("Could not " + description + " (exit code " + result.getExitCode()
+                        + "): " + result.getStderr());
+            }
+            return result;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not " + description, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while trying to " + description, e);
+        }
+    }
+
+    /**
+     * Checks if the JVM meets the Jaybird (Firebird JDBC driver) requirements for encrypted connections.
+     * <p>
+     * Specifically, this checks if the ARC4 cipher can be used with 160 bit keys. The result is determined once per
+     * JVM.
+     * </p>
+     *
+     * @return {@code true} if Jaybird will be able to support encrypted connections on this JVM.
+     * @see #getSupportedWireCryptPlugins()
+     */
+    public static boolean isWireEncryptionSupported() {
+        return WireCryptSupport.ARC4_SUPPORTED;
+    }
+
+    /**
+     * Wire encryption plugins the JVM supports, as determined once per JVM.
+     * <p>
+     * {@code Arc4} requires the ARC4 cipher with 160 bit keys, {@code ChaCha} requires the ChaCha20 cipher (Java 11
+     * and higher), and {@code ChaCha64} requires Bouncy Castle on the classpath. Whether the plugins can be used also
+     * depends on the Jaybird version.
+     * </p>
+     * <p>
+     * The container only relaxes {@code WireCrypt} to {@code Enabled} if the JVM supports none of the plugins of the
+     * server. The plugins of the server are not changed: the plugin used is negotiated by Jaybird and the server. To
+     * restrict the plugins of the server, set option {@code WireCryptPlugin} with
+     * {@link #withConfigurationOption(String, String)}.
+     * </p>
+     *
+     * @return names of the supported wire encryption plugins
+     */
+    public static List<String> getSupportedWireCryptPlugins() {
+        return WireCryptSupport.PLUGINS;
+    }
+
+    /**
+     * Wire encryption support of the JVM, detected on first use.
+     */
+    private static final class WireCryptSupport {
+
+        static final boolean ARC4_SUPPORTED = isArc4Supported();
+        static final List<String> PLUGINS = detectPlugins();
+        private static final AtomicBoolean downgradeWarningLogged = new AtomicBoolean();
+
+        private static boolean isArc4Supported() {
+            try {
+                return Cipher.getMaxAllowedKeyLength("ARC4") >= ARC4_REQUIRED_BITS;
+            } catch (NoSuchAlgorithmException e) {
+                log.error("Cipher not found, JVM doesn't support encryption requirements", e);
+                return false;
+            }
+        }
+
+        private static List<String> detectPlugins() {
+            List<String> plugins = new ArrayList<>();
+            if (ARC4_SUPPORTED) {
+                plugins.add("Arc4");
+            }
+            try {
+                Cipher.getInstance("ChaCha20");
+                plugins.add("ChaCha");
+            } catch (GeneralSecurityException e) {
+                log.debug("ChaCha20 cipher not supported by the JVM", e);
+            }
+            try {
+                Class.forName(BOUNCY_CASTLE_CHACHA_ENGINE_CLASS, false, FirebirdContainer.class.getClassLoader());
+                plugins.add("ChaCha64");
+            } catch (ClassNotFoundException e) {
+                log.debug("Bouncy Castle not found, ChaCha64 not supported");
+            }
+            log.debug("Wire encryption plugins supported by the JVM: {}", plugins);
+            return Collections.unmodifiableList(plugins);
+        }
+
+        static void logDowngradeWarning() {
+            if (downgradeWarningLogged.compareAndSet(false, true)) {
+                log.warn("Java Virtual Machine does not support wire protocol encryption requirements. " +
+                    "Downgrading to EnableWireCrypt = true. To fix this, configure the JVM with unlimited strength Cryptographic Jurisdiction Policy.");
+            } else {
+                log.debug("Java Virtual Machine does not support wire protocol encryption requirements. " +
+                        "Downgrading to EnableWireCrypt = true.");
+            }
+        }
+    }
+
+    private enum ImageVariant {
+        PROJECT {
+            @Override
+            void setUserAndPassword(FirebirdContainer container) {
+                container.addEnv("FIREBIRD_USER", container.username);
+                container.addEnv("FIREBIRD_PASSWORD", container.password);
+                if (FIREBIRD_SYSDBA.equalsIgnoreCase(container.username)) {
+                    container.addEnv("FIREBIRD_ROOT_PASSWORD", container.password);
+                } else if (container.sysdbaPassword != null) {
+                    container.addEnv("FIREBIRD_ROOT_PASSWORD", container.sysdbaPassword);
+                }
+            }
+
+            @Override
+            void enableLegacyAuth(FirebirdContainer container) {
+                container.addEnv("FIREBIRD_USE_LEGACY_AUTH", "true");
+            }
+
+            @Override
+            void setWireCryptEnabled(FirebirdContainer container) {
+                container.addEnv("FIREBIRD_CONF_WireCrypt", "Enabled");
+            }
+
+            @Override
+            void setConfigurationOptions(FirebirdContainer container, Map<String, String> options) {
+                options.forEach((name, value) -> container.addEnv("FIREBIRD_CONF_" + name, value));
+            }
+
+            @Override
+            String getDataDirectory(FirebirdContainer container) {
+                return PROJECT_DATA_DIRECTORY;
+            }
+
+            @Override
+            void setDatabaseCreateOptions(FirebirdContainer container) {
+                if (container.databasePageSize != null) {
+                    container.addEnv("FIREBIRD_DATABASE_PAGE_SIZE", String.valueOf(container.databasePageSize));
+                }
+                if (container.databaseDefaultCharacterSet != null) {
+                    container.addEnv("FIREBIRD_DATABASE_DEFAULT_CHARSET", container.databaseDefaultCharacterSet);
+                }
+            }
+
+            @Override
+            String getToolDirectory() {
+                return "/opt/firebird/bin";
+            }
+        },
+        JACOBALBERTY {
+            @Override
+            void setUserAndPassword(FirebirdContainer container) {
+                if (FIREBIRD_SYSDBA.equalsIgnoreCase(container.username)) {
+                    container.addEnv("ISC_PASSWORD", container.password);
+                } else {
+                    container.addEnv("FIREBIRD_USER", container.username);
+                    container.addEnv("FIREBIRD_PASSWORD", container.password);
+                    if (container.sysdbaPassword != null) {
+                        container.addEnv("ISC_PASSWORD", container.sysdbaPassword);
+                    }
+                }
+            }
+
+            @Override
+            void enableLegacyAuth(FirebirdContainer container) {
                 container.addEnv("EnableLegacyClientAuth", "true");
             }
 
@@ -286,6 +2120,28 @@ public class FirebirdContainer extends JdbcDatabaseContainer<FirebirdContainer>
             void setWireCryptEnabled(FirebirdContainer container) {
                 container.addEnv("EnableWireCrypt", "true");
             }
+
+            @Override
+            void setConfigurationOptions(FirebirdContainer container, Map<String, String> options) {
+                throw new IllegalStateException("Configuration options " + options.keySet()
+                        + " are not supported for image " + JACOB_ALBERTY_IMAGE + ", use " + PROJECT_IMAGE);
+            }
+
+            @Override
+            String getDataDirectory(FirebirdContainer container) {
+                return container.getEnvMap().getOrDefault("DBPATH", JACOB_ALBERTY_DEFAULT_DATA_DIRECTORY);
+            }
+
+            @Override
+            void setDatabaseCreateOptions(FirebirdContainer container) {
+                throw new IllegalStateException("Database page size and default character set are not supported for "
+                        + "image " + JACOB_ALBERTY_IMAGE + ", use " + PROJECT_IMAGE);
+            }
+
+            @Override
+            String getToolDirectory() {
+                return "/usr/local/firebird/bin";
+            }
         },
         ;
 
@@ -303,8 +2159,24 @@ public class FirebirdContainer extends JdbcDatabaseContainer<FirebirdContainer>
 
         abstract void setWireCryptEnabled(FirebirdContainer container);
 
-        static ImageVariant of(String imageNameString) {
-            DockerImageName imageName = DockerImageName.parse(imageNameString);
+        abstract void setConfigurationOptions(FirebirdContainer container, Map<String, String> options);
+
+        /**
+         * Sets the page size and default character set of the database created by the image.
+         */
+        abstract void setDatabaseCreateOptions(FirebirdContainer container);
+
+        /**
+         * @return directory inside the container where databases with a relative name are stored
+         */
+        abstract String getDataDirectory(FirebirdContainer container);
+
+        /**
+         * @return directory inside the container with the Firebird command line tools
+         */
+        abstract String getToolDirectory();
+
+        static ImageVariant of(DockerImageName imageName) {
             if (imageName.isCompatibleWith(PROJECT_IMAGE_NAME)) {
                 return PROJECT;
             } else if (imageName.isCompatibleWith(JACOB_ALBERTY_IMAGE_NAME)) {
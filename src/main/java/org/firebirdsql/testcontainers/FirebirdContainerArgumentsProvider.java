@@ -0,0 +1,105 @@
+package org.firebirdsql.testcontainers;
+
+import org.junit.jupiter.api.Named;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.ArgumentsProvider;
+import org.junit.jupiter.params.support.AnnotationConsumer;
+import org.junit.jupiter.params.support.ParameterDeclarations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.lifecycle.Startables;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+
+/**
+ * Provides the containers for {@link FirebirdContainerSource}.
+ * <p>
+ * The started containers are kept in the store of the root extension context, so they are shared by all test classes
+ * of the test run, and are stopped when the root context is closed.
+ * </p>
+ */
+final class FirebirdContainerArgumentsProvider
+        implements ArgumentsProvider, AnnotationConsumer<FirebirdContainerSource> {
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(FirebirdContainerArgumentsProvider.class);
+
+    private List<String> imageNames;
+
+    @Override
+    public void accept(FirebirdContainerSource source) {
+        if (source.value().length == 0) {
+            throw new IllegalArgumentException("@FirebirdContainerSource requires at least one image name");
+        }
+        imageNames = Arrays.asList(source.value());
+    }
+
+    @Override
+    public Stream<? extends Arguments> provideArguments(ParameterDeclarations parameters, ExtensionContext context) {
+        SharedContainers sharedContainers = context.getRoot().getStore(NAMESPACE)
+                .getOrComputeIfAbsent(SharedContainers.class, key -> new SharedContainers(), SharedContainers.class);
+        List<FirebirdContainer> containers = sharedContainers.getStarted(imageNames);
+        List<Arguments> arguments = new ArrayList<>(containers.size());
+        for (int i = 0; i < containers.size(); i++) {
+            arguments.add(Arguments.of(Named.of(imageNames.get(i), containers.get(i))));
+        }
+        return arguments.stream();
+    }
+
+    /**
+     * Started containers by image name, stopped when the store is closed.
+     */
+    private static final class SharedContainers implements AutoCloseable {
+
+        private static final Logger log = LoggerFactory.getLogger(SharedContainers.class);
+
+        private final Map<String, FirebirdContainer> containers = new LinkedHashMap<>();
+
+        /**
+         * Returns the containers for the image names, concurrently starting those which are not yet running.
+         *
+         * @param imageNames
+         *         Docker image names
+         * @return started containers, in order of {@code imageNames}
+         */
+        synchronized List<FirebirdContainer> getStarted(List<String> imageNames) {
+            Map<String, FirebirdContainer> newContainers = new LinkedHashMap<>();
+            for (String imageName : imageNames) {
+                if (!containers.containsKey(imageName)) {
+                    newContainers.computeIfAbsent(imageName, FirebirdContainer::new);
+                }
+            }
+            if (!newContainers.isEmpty()) {
+                log.info("Starting Firebird containers for {}", newContainers.keySet());
+                try {
+                    Startables.deepStart(newContainers.values()).join();
+                } catch (CompletionException e) {
+                    newContainers.values().forEach(FirebirdContainer::stop);
+                    Throwable cause = e.getCause();
+                    throw cause instanceof RuntimeException
+                            ? (RuntimeException) cause
+                            : new IllegalStateException("Could not start Firebird containers", cause);
+                }
+                containers.putAll(newContainers);
+            }
+            List<FirebirdContainer> result = new ArrayList<>(imageNames.size());
+            for (String imageName : imageNames) {
+                result.add(containers.get(imageName));
+            }
+            return result;
+        }
+
+        @Override
+        public synchronized void close() {
+            containers.values().forEach(FirebirdContainer::stop);
+            containers.clear();
+        }
+    }
+}
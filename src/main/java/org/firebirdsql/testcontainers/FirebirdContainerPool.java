@@ -0,0 +1,239 @@
+package org.firebirdsql.testcontainers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.containers.JdbcDatabaseContainer;
+import org.testcontainers.jdbc.ConnectionUrl;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Pool of pre-started Firebird containers for the {@code jdbc:tc:firebird:...} URLs.
+ * <p>
+ * Containers are pooled per combination of image tag, database name, query parameters (including user and password),
+ * container parameters and tmpfs options of the URL. Containers are only started on demand: each time a container is
+ * requested, at most one replacement is started in the background, up to the pool size, so the next request for the
+ * same combination gets a running container without waiting for its startup. The first request for a combination
+ * gets a new container, which is started by the caller.
+ * </p>
+ * <p>
+ * Pre-started containers which are not taken within the idle timeout are stopped, and remaining containers are stopped
+ * when the JVM exits.
+ * </p>
+ * <p>
+ * The pool is disabled by default, and can be enabled by setting system property {@value #POOL_SIZE_PROPERTY} to the
+ * number of pre-started containers to keep per combination. The idle timeout in seconds can be set with system
+ * property {@value #IDLE_TIMEOUT_PROPERTY} (default {@value #DEFAULT_IDLE_TIMEOUT_SECONDS}; {@code 0} keeps idle
+ * containers until the JVM exits).
+ * </p>
+ */
+final class FirebirdContainerPool {
+
+    static final String POOL_SIZE_PROPERTY = "org.firebirdsql.testcontainers.poolSize";
+    static final String IDLE_TIMEOUT_PROPERTY = "org.firebirdsql.testcontainers.poolIdleTimeout";
+    static final long DEFAULT_IDLE_TIMEOUT_SECONDS = 60;
+
+    private static final Logger log = LoggerFactory.getLogger(FirebirdContainerPool.class);
+    private static final long MIN_EVICTION_INTERVAL_MILLIS = 1000;
+
+    private final Map<List<Object>, PoolEntry> entries = new ConcurrentHashMap<>();
+    private final Executor executor;
+    private final Duration idleTimeout;
+
+    private FirebirdContainerPool() {
+        this(Executors.newCachedThreadPool(new PoolThreadFactory()), getConfiguredIdleTimeout());
+        Runtime.getRuntime().addShutdownHook(
+                new Thread(this::stopAvailableContainers, "firebird-container-pool-shutdown"));
+        if (!idleTimeout.isZero()) {
+            ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(new PoolThreadFactory());
+            long interval = Math.max(MIN_EVICTION_INTERVAL_MILLIS, idleTimeout.toMillis() / 2);
+            scheduler.scheduleWithFixedDelay(this::stopIdleContainers, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @param executor
+     *         Executor to start containers in the background
+     * @param idleTimeout
+     *         Time after which a pre-started container which was not taken is stopped by {@link #stopIdleContainers()}
+     */
+    FirebirdContainerPool(Executor executor, Duration idleTimeout) {
+        this.executor = executor;
+        this.idleTimeout = idleTimeout;
+    }
+
+    static FirebirdContainerPool getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    /**
+     * @return configured pool size, {@code 0} if the pool is disabled
+     */
+    static int getConfiguredPoolSize() {
+        return Math.max(0, Integer.getInteger(POOL_SIZE_PROPERTY, 0));
+    }
+
+    /**
+     * @return configured idle timeout, {@link Duration#ZERO} if idle containers are kept until the JVM exits
+     */
+    static Duration getConfiguredIdleTimeout() {
+        return Duration.ofSeconds(Math.max(0, Long.getLong(IDLE_TIMEOUT_PROPERTY, DEFAULT_IDLE_TIMEOUT_SECONDS)));
+    }
+
+    /**
+     * Takes a container for {@code connectionUrl} from the pool.
+     * <p>
+     * If the pool has no running container available, a new (not started) container is returned. In both cases, one
+     * container is started in the background if the pool has fewer than {@code poolSize} started or starting
+     * containers for the URL.
+     * </p>
+     *
+     * @param connectionUrl
+     *         Testcontainers connection URL
+     * @param poolSize
+     *         Maximum number of started containers to keep available for this URL
+     * @param containerFactory
+     *         Factory to create a new (not started) container for the URL
+     * @return a started container from the pool, or a new container
+     */
+    JdbcDatabaseContainer<?> take(ConnectionUrl connectionUrl, int poolSize,
+            Function<ConnectionUrl, JdbcDatabaseContainer<?>> containerFactory) {
+        PoolEntry entry = entries.computeIfAbsent(poolKey(connectionUrl),
+                key -> new PoolEntry(connectionUrl, containerFactory));
+        PooledContainer pooled = entry.available.poll();
+        entry.replenish(poolSize);
+        if (pooled != null) {
+            log.debug("Using pre-started container {} from pool", pooled.container.getContainerId());
+            return pooled.container;
+        }
+        log.debug("No pre-started container available in pool, creating new container");
+        return containerFactory.apply(connectionUrl);
+    }
+
+    /**
+     * @return number of started containers available in the pool for {@code connectionUrl}
+     */
+    int getAvailableCount(ConnectionUrl connectionUrl) {
+        PoolEntry entry = entries.get(poolKey(connectionUrl));
+        return entry != null ? entry.available.size() : 0;
+    }
+
+    private static List<Object> poolKey(ConnectionUrl connectionUrl) {
+        return Arrays.asList(
+                connectionUrl.getDatabaseType(),
+                connectionUrl.getImageTag().orElse(null),
+                connectionUrl.getDatabaseName().orElse(null),
+                connectionUrl.getQueryParameters(),
+                connectionUrl.getContainerParameters(),
+                connectionUrl.getTmpfsOptions());
+    }
+
+    /**
+     * Stops the containers which have been available in the pool for longer than the idle timeout.
+     */
+    void stopIdleContainers() {
+        long now = System.nanoTime();
+        for (PoolEntry entry : entries.values()) {
+            for (PooledContainer pooled : entry.available) {
+                // remove fails if the container was taken concurrently
+                if (now - pooled.availableSinceNanos >= idleTimeout.toNanos() && entry.available.remove(pooled)) {
+                    log.debug("Stopping idle pooled container {}", pooled.container.getContainerId());
+                    stop(pooled.container);
+                }
+            }
+        }
+    }
+
+    private void stopAvailableContainers() {
+        for (PoolEntry entry : entries.values()) {
+            PooledContainer pooled;
+            while ((pooled = entry.available.poll()) != null) {
+                stop(pooled.container);
+            }
+        }
+    }
+
+    private static void stop(JdbcDatabaseContainer<?> container) {
+        try {
+            container.stop();
+        } catch (RuntimeException e) {
+            log.debug("Could not stop pooled container", e);
+        }
+    }
+
+    private final class PoolEntry {
+
+        private final ConnectionUrl connectionUrl;
+        private final Function<ConnectionUrl, JdbcDatabaseContainer<?>> containerFactory;
+        private final Queue<PooledContainer> available = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger starting = new AtomicInteger();
+
+        private PoolEntry(ConnectionUrl connectionUrl,
+                Function<ConnectionUrl, JdbcDatabaseContainer<?>> containerFactory) {
+            this.connectionUrl = connectionUrl;
+            this.containerFactory = containerFactory;
+        }
+
+        private synchronized void replenish(int poolSize) {
+            if (available.size() + starting.get() < poolSize) {
+                starting.incrementAndGet();
+                executor.execute(this::startContainer);
+            }
+        }
+
+        private void startContainer() {
+            try {
+                JdbcDatabaseContainer<?> container = containerFactory.apply(connectionUrl);
+                // Same configuration as applied by ContainerDatabaseDriver, which has no effect on a started container
+                container.withTmpFs(connectionUrl.getTmpfsOptions());
+                container.setParameters(connectionUrl.getContainerParameters());
+                container.start();
+                available.offer(new PooledContainer(container));
+            } catch (RuntimeException e) {
+                log.warn("Could not start container for pool", e);
+            } finally {
+                starting.decrementAndGet();
+            }
+        }
+    }
+
+    private static final class PooledContainer {
+
+        private final JdbcDatabaseContainer<?> container;
+        private final long availableSinceNanos = System.nanoTime();
+
+        private PooledContainer(JdbcDatabaseContainer<?> container) {
+            this.container = container;
+        }
+    }
+
+    private static final class PoolThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "firebird-container-pool-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    private static final class InstanceHolder {
+
+        private static final FirebirdContainerPool INSTANCE = new FirebirdContainerPool();
+    }
+}
@@ -13,6 +13,11 @@ import static java.util.Collections.unmodifiableSet;
 
 /**
  * Factory for Firebird containers.
+ * <p>
+ * For {@code jdbc:tc:firebird:...} URLs, a pool of pre-started containers can be enabled by setting system property
+ * {@code org.firebirdsql.testcontainers.poolSize} to the number of containers to keep started per distinct
+ * configuration.
+ * </p>
  */
 public class FirebirdContainerProvider extends JdbcDatabaseContainerProvider {
 
@@ -48,6 +53,11 @@ public class FirebirdContainerProvider extends JdbcDatabaseContainerProvider {
 
     @Override
     public JdbcDatabaseContainer newInstance(ConnectionUrl connectionUrl) {
+        int poolSize = FirebirdContainerPool.getConfiguredPoolSize();
+        if (poolSize > 0 && !connectionUrl.isReusable()) {
+            return FirebirdContainerPool.getInstance().take(connectionUrl, poolSize,
+                    url -> newInstanceFromConnectionUrl(url, USER_PARAM, PASSWORD_PARAM));
+        }
         return newInstanceFromConnectionUrl(connectionUrl, USER_PARAM, PASSWORD_PARAM);
     }
 }
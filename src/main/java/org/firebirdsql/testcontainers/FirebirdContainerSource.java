@@ -0,0 +1,47 @@
+package org.firebirdsql.testcontainers;
+
+import org.junit.jupiter.params.provider.ArgumentsSource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Source of started {@link FirebirdContainer} instances for a JUnit 5 {@code @ParameterizedTest}, one for each image.
+ * <p>
+ * The containers of all images which are not yet running are started concurrently, so a test matrix over several
+ * Firebird versions starts in roughly the time of the slowest image. The containers are shared by all tests using
+ * this annotation with the same image (also in other test classes), and are stopped at the end of the test run.
+ * The containers use the default configuration of {@link FirebirdContainer}, so tests must not depend on a clean
+ * database.
+ * </p>
+ * <p>
+ * Example:
+ * </p>
+ * <pre>{@code
+ * @ParameterizedTest
+ * @FirebirdContainerSource({ "firebirdsql/firebird:4.0.5", "firebirdsql/firebird:5.0.3" })
+ * void testSomething(FirebirdContainer container) throws SQLException {
+ *     try (Connection connection = container.createConnection("")) {
+ *         // ...
+ *     }
+ * }
+ * }</pre>
+ * <p>
+ * Requires {@code org.junit.jupiter:junit-jupiter-params}.
+ * </p>
+ */
+@Target({ ElementType.ANNOTATION_TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@ArgumentsSource(FirebirdContainerArgumentsProvider.class)
+public @interface FirebirdContainerSource {
+
+    /**
+     * @return Docker image names (e.g. {@code "firebirdsql/firebird:5.0.3"}); one invocation of the test per image
+     */
+    String[] value();
+
+}
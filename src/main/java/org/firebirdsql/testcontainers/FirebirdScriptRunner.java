@@ -0,0 +1,390 @@
+package org.firebirdsql.testcontainers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.ext.ScriptUtils;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Executes Firebird SQL scripts (as written for {@code isql}) over JDBC, for {@link InitScriptMode#FIREBIRD}.
+ * <p>
+ * The parser understands comments, string literals (including Q-strings), quoted identifiers and {@code SET TERM}.
+ * DDL is committed per statement, as metadata changes are only visible to later statements after commit; consecutive
+ * DML statements share one transaction, committed at the next DDL statement, {@code COMMIT}, or the end of the script.
+ * They are added to a {@link Statement} batch, but Jaybird executes such a batch one statement at a time, so this does
+ * not save round trips.
+ * </p>
+ * <p>
+ * Other {@code isql} commands are skipped, except {@code SET TRANSACTION} and {@code SET SQL DIALECT} with a dialect
+ * other than 3 (the dialect of the connection), which are rejected before any statement of the script is executed, as
+ * skipping them would execute the script differently than {@code isql}.
+ * </p>
+ */
+final class FirebirdScriptRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(FirebirdScriptRunner.class);
+
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final Pattern SET_TERM_PATTERN =
+            Pattern.compile("SET\\s+TERM\\s+(\\S+)", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern WORD_PATTERN = Pattern.compile("[A-Za-z_][A-Za-z0-9_$]*");
+    private static final Pattern RETURNING_PATTERN = Pattern.compile("\\bRETURNING\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern SQL_DIALECT_3_PATTERN =
+            Pattern.compile("SET\\s+SQL\\s+DIALECT\\s+3", Pattern.CASE_INSENSITIVE);
+    private static final Set<String> DDL_KEYWORDS = new HashSet<>(
+            Arrays.asList("CREATE", "ALTER", "DROP", "RECREATE", "DECLARE", "COMMENT", "GRANT", "REVOKE"));
+    private static final Set<String> DML_KEYWORDS = new HashSet<>(
+            Arrays.asList("INSERT", "UPDATE", "DELETE", "MERGE"));
+    private static final Set<String> ISQL_KEYWORDS = new HashSet<>(
+            Arrays.asList("CONNECT", "SHOW", "INPUT", "OUTPUT", "QUIT", "EXIT", "EDIT", "HELP", "SHELL", "BLOBDUMP",
+                    "BLOBVIEW"));
+    private static final Set<String> SQL_SET_KEYWORDS = new HashSet<>(
+            Arrays.asList("ROLE", "TRUSTED", "DECFLOAT", "BIND", "SESSION"));
+
+    enum Kind {
+        DDL,
+        DML,
+        OTHER,
+        COMMIT,
+        ROLLBACK,
+        /**
+         * Command of {@code isql}, which is skipped.
+         */
+        ISQL,
+        /**
+         * Command of {@code isql} which cannot be skipped without changing the result of the script, which is rejected.
+         */
+        UNSUPPORTED,
+    }
+
+    /**
+     * Statement of a script.
+     */
+    static final class ScriptStatement {
+
+        private final String sql;
+        private final int lineNumber;
+        private final Kind kind;
+
+        ScriptStatement(String sql, int lineNumber) {
+            this.sql = sql;
+            this.lineNumber = lineNumber;
+            this.kind = classify(sql);
+        }
+
+        String getSql() {
+            return sql;
+        }
+
+        int getLineNumber() {
+            return lineNumber;
+        }
+
+        Kind getKind() {
+            return kind;
+        }
+    }
+
+    private FirebirdScriptRunner() {
+        throw new AssertionError("no instances");
+    }
+
+    /**
+     * Executes a script.
+     *
+     * @param connection
+     *         Connection to execute the script on
+     * @param scriptPath
+     *         Path of the script (for error messages)
+     * @param script
+     *         Content of the script
+     * @throws ScriptUtils.ScriptStatementFailedException
+     *         if a statement fails; the current transaction is rolled back. Also if the script contains an unsupported
+     *         {@code isql} command, in which case no statement is executed
+     */
+    static void run(Connection connection, String scriptPath, String script) {
+        List<ScriptStatement> statements = parse(script);
+        for (ScriptStatement scriptStatement : statements) {
+            if (scriptStatement.getKind() == Kind.UNSUPPORTED) {
+                throw new ScriptUtils.ScriptStatementFailedException(scriptStatement.getSql(),
+                        scriptStatement.getLineNumber(), scriptPath, new IllegalArgumentException(
+                                "isql command not supported by InitScriptMode.FIREBIRD, use InitScriptMode.ISQL: "
+                                        + scriptStatement.getSql()));
+            }
+        }
+        List<ScriptStatement> batch = new ArrayList<>();
+        ScriptStatement current = null;
+        try {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                for (ScriptStatement scriptStatement : statements) {
+                    if (scriptStatement.getKind() == Kind.DML) {
+                        statement.addBatch(scriptStatement.getSql());
+                        batch.add(scriptStatement);
+                        if (batch.size() >= MAX_BATCH_SIZE) {
+                            executeBatch(statement, batch);
+                        }
+                        continue;
+                    }
+                    executeBatch(statement, batch);
+                    current = scriptStatement;
+                    switch (scriptStatement.getKind()) {
+                    case COMMIT:
+                        connection.commit();
+                        break;
+                    case ROLLBACK:
+                        connection.rollback();
+                        break;
+                    case ISQL:
+                        log.debug("Skipping isql command at line {} of {}: {}", scriptStatement.getLineNumber(),
+                                scriptPath, scriptStatement.getSql());
+                        break;
+                    case DDL:
+                        statement.execute(scriptStatement.getSql());
+                        connection.commit();
+                        break;
+                    default:
+                        statement.execute(scriptStatement.getSql());
+                        break;
+                    }
+                    current = null;
+                }
+                executeBatch(statement, batch);
+                connection.commit();
+            }
+        } catch (BatchFailedException e) {
+            rollback(connection);
+            throw new ScriptUtils.ScriptStatementFailedException(e.statement.getSql(), e.statement.getLineNumber(),
+                    scriptPath, e);
+        } catch (SQLException e) {
+            rollback(connection);
+            if (current == null) {
+                throw new ScriptUtils.UncategorizedScriptException("Failed to execute script " + scriptPath, e);
+            }
+            throw new ScriptUtils.ScriptStatementFailedException(current.getSql(), current.getLineNumber(),
+                    scriptPath, e);
+        }
+    }
+
+    private static void executeBatch(Statement statement, List<ScriptStatement> batch) throws SQLException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            statement.executeBatch();
+        } catch (BatchUpdateException e) {
+            int[] updateCounts = e.getUpdateCounts();
+            int failedIndex = updateCounts != null ? Math.min(updateCounts.length, batch.size() - 1) : 0;
+            throw new BatchFailedException(batch.get(failedIndex), e);
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private static void rollback(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            log.debug("Rollback after script failure failed", e);
+        }
+    }
+
+    /**
+     * Splits a script into statements.
+     *
+     * @param script
+     *         Content of the script
+     * @return statements, excluding {@code SET TERM}
+     */
+    static List<ScriptStatement> parse(String script) {
+        List<ScriptStatement> statements = new ArrayList<>();
+        String terminator = ";";
+        StringBuilder current = new StringBuilder();
+        int line = 1;
+        int startLine = 0;
+        int length = script.length();
+        int index = 0;
+        while (index < length) {
+            char c = script.charAt(index);
+            boolean started = startLine != 0;
+            int end;
+            if (c == '-' && script.startsWith("--", index)) {
+                end = script.indexOf('\n', index);
+                end = end == -1 ? length : end;
+            } else if (c == '/' && script.startsWith("/*", index)) {
+                end = script.indexOf("*/", index + 2);
+                end = end == -1 ? length : end + 2;
+            } else if (c == '\'' || c == '"') {
+                end = endOfQuoted(script, index, c);
+                started = true;
+            } else if ((c == 'q' || c == 'Q') && isQString(script, index, current)) {
+                end = endOfQString(script, index);
+                started = true;
+            } else if (script.startsWith(terminator, index)) {
+                // SET TERM changes the terminator, so skip the length of the matched one
+                int matchedLength = terminator.length();
+                if (startLine != 0) {
+                    String sql = current.toString().trim();
+                    Matcher setTermMatcher = SET_TERM_PATTERN.matcher(sql);
+                    if (setTermMatcher.matches()) {
+                        terminator = setTermMatcher.group(1);
+                    } else {
+                        statements.add(new ScriptStatement(sql, startLine));
+                    }
+                }
+                current.setLength(0);
+                startLine = 0;
+                index += matchedLength;
+                continue;
+            } else {
+                end = index + 1;
+                started = started || !Character.isWhitespace(c);
+            }
+            if (started) {
+                if (startLine == 0) {
+                    startLine = line;
+                }
+                current.append(script, index, end);
+            }
+            for (int i = index; i < end; i++) {
+                if (script.charAt(i) == '\n') {
+                    line++;
+                }
+            }
+            index = end;
+        }
+        String remainder = current.toString().trim();
+        if (!remainder.isEmpty()) {
+            statements.add(new ScriptStatement(remainder, startLine));
+        }
+        return statements;
+    }
+
+    private static int endOfQuoted(String script, int start, char quote) {
+        int index = start + 1;
+        while (index < script.length()) {
+            if (script.charAt(index) == quote) {
+                if (index + 1 < script.length() && script.charAt(index + 1) == quote) {
+                    index += 2;
+                    continue;
+                }
+                return index + 1;
+            }
+            index++;
+        }
+        return script.length();
+    }
+
+    private static boolean isQString(String script, int index, StringBuilder current) {
+        if (index + 2 >= script.length() || script.charAt(index + 1) != '\'') {
+            return false;
+        }
+        // Not part of an identifier like "freq'..."
+        return current.length() == 0 || !Character.isLetterOrDigit(current.charAt(current.length() - 1))
+                && current.charAt(current.length() - 1) != '_' && current.charAt(current.length() - 1) != '$';
+    }
+
+    private static int endOfQString(String script, int start) {
+        char open = script.charAt(start + 2);
+        char close;
+        switch (open) {
+        case '(':
+            close = ')';
+            break;
+        case '{':
+            close = '}';
+            break;
+        case '[':
+            close = ']';
+            break;
+        case '<':
+            close = '>';
+            break;
+        default:
+            close = open;
+            break;
+        }
+        int end = script.indexOf(close + "'", start + 3);
+        return end == -1 ? script.length() : end + 2;
+    }
+
+    static Kind classify(String sql) {
+        List<String> words = new ArrayList<>(3);
+        Matcher matcher = WORD_PATTERN.matcher(sql);
+        int position = 0;
+        while (words.size() < 3 && matcher.find(position)) {
+            // Only leading words, separated by whitespace
+            if (!sql.substring(position, matcher.start()).trim().isEmpty()) {
+                break;
+            }
+            words.add(matcher.group().toUpperCase(Locale.ROOT));
+            position = matcher.end();
+        }
+        if (words.isEmpty()) {
+            return Kind.OTHER;
+        }
+        String first = words.get(0);
+        String second = words.size() > 1 ? words.get(1) : "";
+        switch (first) {
+        case "COMMIT":
+            return Kind.COMMIT;
+        case "ROLLBACK":
+            return "TO".equals(second) ? Kind.OTHER : Kind.ROLLBACK;
+        case "SET":
+            if ("GENERATOR".equals(second) || "STATISTICS".equals(second)) {
+                return Kind.DDL;
+            } else if (SQL_SET_KEYWORDS.contains(second)
+                    || "TIME".equals(second) && words.size() > 2 && "ZONE".equals(words.get(2))) {
+                return Kind.OTHER;
+            }
+            if ("TRANSACTION".equals(second)
+                    || "SQL".equals(second) && !SQL_DIALECT_3_PATTERN.matcher(sql).matches()) {
+                return Kind.UNSUPPORTED;
+            }
+            // SET SQL DIALECT 3, SET NAMES, SET AUTODDL, etc.
+            return Kind.ISQL;
+        case "CREATE":
+        case "DROP":
+            if ("DATABASE".equals(second)) {
+                return Kind.ISQL;
+            }
+            return Kind.DDL;
+        default:
+            if (ISQL_KEYWORDS.contains(first)) {
+                return Kind.ISQL;
+            } else if (DDL_KEYWORDS.contains(first)) {
+                return Kind.DDL;
+            } else if (DML_KEYWORDS.contains(first) && !RETURNING_PATTERN.matcher(sql).find()) {
+                return Kind.DML;
+            }
+            return Kind.OTHER;
+        }
+    }
+
+    /**
+     * Failure of a statement in a batch.
+     */
+    private static final class BatchFailedException extends SQLException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient ScriptStatement statement;
+
+        BatchFailedException(ScriptStatement statement, BatchUpdateException cause) {
+            super(cause.getMessage(), cause.getSQLState(), cause.getErrorCode(), cause);
+            this.statement = statement;
+        }
+    }
+}
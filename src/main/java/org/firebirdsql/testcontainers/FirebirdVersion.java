@@ -0,0 +1,147 @@
+package org.firebirdsql.testcontainers;
+
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Firebird version of an image, derived from its tag.
+ * <p>
+ * Recognizes tags like {@code 5.0.3}, {@code 4}, {@code v4.0} and {@code 2.5-sc}. If the tag does not start with a
+ * version number (e.g. {@code latest}), the version is unknown, and assumed to be a recent version by
+ * {@link #isAtLeast(int, int)}. The server mode is only known if the tag contains {@code -ss} (SuperServer),
+ * {@code -sc} (SuperClassic) or {@code -cs} (Classic), as used by the Firebird 2.5 images of
+ * {@code jacobalberty/firebird}.
+ * </p>
+ *
+ * @see FirebirdContainer#getFirebirdVersion()
+ */
+public final class FirebirdVersion {
+
+    private static final Pattern VERSION_PATTERN = Pattern.compile("v?(\\d+)(?:\\.(\\d+))?");
+    private static final Pattern SERVER_MODE_PATTERN = Pattern.compile("-(ss|sc|cs)(?:-|$)");
+
+    private final String tag;
+    private final int major;
+    private final int minor;
+    private final ServerMode serverMode;
+
+    private FirebirdVersion(String tag, int major, int minor, ServerMode serverMode) {
+        this.tag = tag;
+        this.major = major;
+        this.minor = minor;
+        this.serverMode = serverMode;
+    }
+
+    /**
+     * Parses the version from the tag of an image.
+     *
+     * @param imageName
+     *         Image name
+     * @return Firebird version of the image
+     */
+    static FirebirdVersion of(DockerImageName imageName) {
+        String tag = imageName.getVersionPart();
+        Matcher versionMatcher = VERSION_PATTERN.matcher(tag);
+        int major = -1;
+        int minor = -1;
+        if (versionMatcher.lookingAt()) {
+            major = Integer.parseInt(versionMatcher.group(1));
+            minor = versionMatcher.group(2) != null ? Integer.parseInt(versionMatcher.group(2)) : 0;
+        }
+        Matcher serverModeMatcher = SERVER_MODE_PATTERN.matcher(tag.toLowerCase(Locale.ROOT));
+        ServerMode serverMode = null;
+        if (serverModeMatcher.find()) {
+            switch (serverModeMatcher.group(1)) {
+            case "ss":
+                serverMode = ServerMode.SUPER;
+                break;
+            case "sc":
+                serverMode = ServerMode.SUPER_CLASSIC;
+                break;
+            case "cs":
+                serverMode = ServerMode.CLASSIC;
+                break;
+            }
+        }
+        return new FirebirdVersion(tag, major, minor, serverMode);
+    }
+
+    /**
+     * @return tag of the image the version was derived from
+     */
+    public String getTag() {
+        return tag;
+    }
+
+    /**
+     * @return {@code true} if the tag starts with a version number
+     */
+    public boolean isKnown() {
+        return major != -1;
+    }
+
+    /**
+     * @return major version (e.g. {@code 5} for Firebird 5.0), or {@code -1} if unknown
+     */
+    public int getMajor() {
+        return major;
+    }
+
+    /**
+     * @return minor version (e.g. {@code 0} for Firebird 5.0, also if the tag only has a major version), or {@code -1}
+     * if unknown
+     */
+    public int getMinor() {
+        return minor;
+    }
+
+    /**
+     * @return server mode of the image, or empty if not specified by the tag
+     */
+    public Optional<ServerMode> getServerMode() {
+        return Optional.ofNullable(serverMode);
+    }
+
+    /**
+     * @param major
+     *         Minimum major version
+     * @return {@code true} if this version is {@code major}.0 or higher, or unknown
+     */
+    public boolean isAtLeast(int major) {
+        return isAtLeast(major, 0);
+    }
+
+    /**
+     * @param major
+     *         Minimum major version
+     * @param minor
+     *         Minimum minor version
+     * @return {@code true} if this version is {@code major.minor} or higher, or unknown
+     */
+    public boolean isAtLeast(int major, int minor) {
+        return !isKnown() || this.major > major || this.major == major && this.minor >= minor;
+    }
+
+    /**
+     * @param major
+     *         Major version
+     * @param minor
+     *         Minor version
+     * @return {@code true} if this version is known, and is {@code major.minor}
+     */
+    public boolean is(int major, int minor) {
+        return this.major == major && this.minor == minor;
+    }
+
+    @Override
+    public String toString() {
+        if (!isKnown()) {
+            return "unknown (" + tag + ")";
+        }
+        return major + "." + minor + (serverMode != null ? " " + serverMode.getConfigValue() : "");
+    }
+}
@@ -0,0 +1,129 @@
+package org.firebirdsql.testcontainers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.containers.ContainerLaunchException;
+import org.testcontainers.containers.wait.strategy.AbstractWaitStrategy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wait strategy which waits until the Firebird server responds to a protocol connect request.
+ * <p>
+ * Checking that the mapped port accepts TCP connections is not sufficient, as the Docker port proxy accepts connections
+ * before the server in the container listens. Instead, this strategy sends an {@code op_connect} packet (without
+ * authentication) and waits for any valid Firebird protocol response. This is a lot cheaper than repeatedly attempting
+ * a full JDBC connection, which includes authentication and possibly wire encryption.
+ * </p>
+ */
+final class FirebirdWaitStrategy extends AbstractWaitStrategy {
+
+    private static final Logger log = LoggerFactory.getLogger(FirebirdWaitStrategy.class);
+
+    private static final int PROBE_INTERVAL_MILLIS = 100;
+    private static final int PROBE_TIMEOUT_MILLIS = 1000;
+
+    // Firebird wire protocol constants
+    private static final int OP_CONNECT = 1;
+    private static final int OP_ACCEPT = 3;
+    private static final int OP_REJECT = 4;
+    private static final int OP_DISCONNECT = 6;
+    private static final int OP_RESPONSE = 9;
+    private static final int OP_ATTACH = 19;
+    private static final int OP_ACCEPT_DATA = 94;
+    private static final int OP_COND_ACCEPT = 98;
+    private static final int CONNECT_VERSION3 = 3;
+    private static final int ARCH_GENERIC = 1;
+    private static final int PROTOCOL_VERSION10 = 10;
+    private static final int PTYPE_RPC = 2;
+
+    @Override
+    protected void waitUntilReady() {
+        String host = waitStrategyTarget.getHost();
+        int port = waitStrategyTarget.getMappedPort(FirebirdContainer.FIREBIRD_PORT);
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + startupTimeout.toNanos();
+        int attempts = 0;
+        while (true) {
+            attempts++;
+            if (probe(host, port)) {
+                log.debug("Firebird server at {}:{} responded after {} ms ({} attempts)", host, port,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), attempts);
+                return;
+            }
+            if (System.nanoTime() - deadline > 0) {
+                throw new ContainerLaunchException("Timed out waiting for Firebird server at " + host + ":" + port
+                        + " to respond to a connect request after " + startupTimeout.getSeconds() + " seconds");
+            }
+            try {
+                Thread.sleep(PROBE_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ContainerLaunchException("Interrupted while waiting for Firebird server", e);
+            }
+        }
+    }
+
+    /**
+     * Sends an {@code op_connect} request, and checks if the server responds with a Firebird protocol response.
+     *
+     * @return {@code true} if the server responded
+     */
+    private static boolean probe(String host, int port) {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host, port), PROBE_TIMEOUT_MILLIS);
+            socket.setSoTimeout(PROBE_TIMEOUT_MILLIS);
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.write(createConnectPacket());
+            out.flush();
+            int operation = new DataInputStream(socket.getInputStream()).readInt();
+            switch (operation) {
+            case OP_ACCEPT:
+            case OP_ACCEPT_DATA:
+            case OP_COND_ACCEPT:
+                out.writeInt(OP_DISCONNECT);
+                out.flush();
+                return true;
+            case OP_REJECT:
+            case OP_RESPONSE:
+                return true;
+            default:
+                log.debug("Unexpected response operation {} to connect probe", operation);
+                return false;
+            }
+        } catch (IOException e) {
+            // Includes the case where the Docker port proxy closes the connection because the server is not listening
+            log.trace("Connect probe failed", e);
+            return false;
+        }
+    }
+
+    private static byte[] createConnectPacket() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream xdr = new DataOutputStream(bytes);
+        xdr.writeInt(OP_CONNECT);
+        xdr.writeInt(OP_ATTACH);
+        xdr.writeInt(CONNECT_VERSION3);
+        xdr.writeInt(ARCH_GENERIC);
+        // Database name (empty string)
+        xdr.writeInt(0);
+        // Number of protocol versions offered
+        xdr.writeInt(1);
+        // User identification (empty buffer)
+        xdr.writeInt(0);
+        // Protocol: version, architecture, minimum type, maximum type, weight
+        xdr.writeInt(PROTOCOL_VERSION10);
+        xdr.writeInt(ARCH_GENERIC);
+        xdr.writeInt(PTYPE_RPC);
+        xdr.writeInt(PTYPE_RPC);
+        xdr.writeInt(1);
+        xdr.flush();
+        return bytes.toByteArray();
+    }
+}
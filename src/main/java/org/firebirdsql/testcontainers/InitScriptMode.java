@@ -0,0 +1,27 @@
+package org.firebirdsql.testcontainers;
+
+/**
+ * How {@link FirebirdContainer} executes init scripts.
+ *
+ * @see FirebirdContainer#withInitScriptMode(InitScriptMode)
+ */
+public enum InitScriptMode {
+
+    /**
+     * Generic Testcontainers script execution over JDBC: each statement is executed and committed individually, and
+     * {@code SET TERM} is not supported.
+     */
+    JDBC,
+    /**
+     * Firebird-aware execution over JDBC: supports {@code SET TERM}, skips {@code isql}-only commands (e.g.
+     * {@code SET NAMES}, {@code CONNECT}), commits after each DDL statement (like {@code SET AUTODDL ON} in
+     * {@code isql}), and executes consecutive DML statements in a single transaction. Scripts with
+     * {@code SET TRANSACTION}, or {@code SET SQL DIALECT} other than 3, are rejected.
+     */
+    FIREBIRD,
+    /**
+     * Executes the script with {@code isql} inside the container, in one round trip, connected as the user of the
+     * container. Supports everything {@code isql} supports; the script is aborted on the first error.
+     */
+    ISQL,
+}
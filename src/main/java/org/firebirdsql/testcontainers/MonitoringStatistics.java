@@ -0,0 +1,345 @@
+package org.firebirdsql.testcontainers;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Database-level statistics from the Firebird monitoring tables ({@code MON$IO_STATS}, {@code MON$RECORD_STATS},
+ * {@code MON$MEMORY_USAGE} and {@code MON$STATEMENTS}).
+ * <p>
+ * A snapshot contains the cumulative counters since the database was opened by the server; use
+ * {@link #minus(MonitoringStatistics)} or {@link FirebirdContainer#measureMonitoringStatistics(Block)} to obtain the
+ * statistics of a block of code. This allows tests to assert on server-side behaviour, for example that a code path
+ * does not perform a full table scan ({@link #getRecordSequentialReads()}), or that the work done does not grow with
+ * the number of rows, as with N+1 queries ({@link #getPageFetches()}, {@link #getRecordIndexedReads()}).
+ * </p>
+ * <p>
+ * The monitoring tables have no counter of executed statements: {@link #getStatements()} and
+ * {@link #getActiveStatements()} are the statements allocated and executing at the time of the snapshot. To count
+ * executed statements, use a trace session ({@link FirebirdContainer#startTraceSession(java.util.function.Consumer)}).
+ * </p>
+ * <p>
+ * The counters include the activity of all connections to the database, including reading the monitoring tables
+ * themselves. The server resets the counters when the last connection to the database is closed. A user who is not
+ * the database owner or an administrator only sees their own statements in {@code MON$STATEMENTS}.
+ * </p>
+ *
+ * @see FirebirdContainer#measureMonitoringStatistics(Block)
+ */
+public final class MonitoringStatistics {
+
+    private static final int VALUE_COUNT = 17;
+    private static final int MAX_MEMORY_USED_INDEX = 14;
+    private static final String STATISTICS_COLUMNS =
+            "select io.MON$PAGE_READS, io.MON$PAGE_WRITES, io.MON$PAGE_FETCHES, io.MON$PAGE_MARKS, "
+            + "r.MON$RECORD_SEQ_READS, r.MON$RECORD_IDX_READS, r.MON$RECORD_INSERTS, r.MON$RECORD_UPDATES, "
+            + "r.MON$RECORD_DELETES, r.MON$RECORD_BACKOUTS, r.MON$RECORD_PURGES, r.MON$RECORD_EXPUNGES, "
+            + "m.MON$MEMORY_USED, m.MON$MEMORY_ALLOCATED, m.MON$MAX_MEMORY_USED ";
+    private static final String STATISTICS_JOINS =
+            "inner join MON$IO_STATS io on io.MON$STAT_ID = s.MON$STAT_ID "
+            + "inner join MON$RECORD_STATS r on r.MON$STAT_ID = s.MON$STAT_ID "
+            + "inner join MON$MEMORY_USAGE m on m.MON$STAT_ID = s.MON$STAT_ID";
+    private static final String STATISTICS_INTO =
+            " into :v0, :v1, :v2, :v3, :v4, :v5, :v6, :v7, :v8, :v9, :v10, :v11, :v12, :v13, :v14;\n";
+    private static final String STATEMENT_COUNT_COLUMNS =
+            "select count(*), count(case when MON$STATE = 1 then 1 end) from MON$STATEMENTS ";
+    private static final String STATEMENT_COUNT_INTO = " into :v15, :v16;\n";
+    private static final String DATABASE_STATISTICS_QUERY = captureBlock(
+            STATISTICS_COLUMNS + "from MON$DATABASE s " + STATISTICS_JOINS + STATISTICS_INTO
+            + STATEMENT_COUNT_COLUMNS + "where MON$ATTACHMENT_ID <> current_connection" + STATEMENT_COUNT_INTO);
+    private static final String CONNECTION_STATISTICS_QUERY = captureBlock(
+            STATISTICS_COLUMNS + "from MON$ATTACHMENTS s " + STATISTICS_JOINS
+            + " where s.MON$ATTACHMENT_ID = current_connection" + STATISTICS_INTO
+            + STATEMENT_COUNT_COLUMNS + "where MON$ATTACHMENT_ID = current_connection" + STATEMENT_COUNT_INTO);
+
+    /**
+     * Block of code to measure.
+     *
+     * @param <E>
+     *         Exception type thrown by the block
+     */
+    @FunctionalInterface
+    public interface Block<E extends Exception> {
+        void run() throws E;
+    }
+
+    private final long pageReads;
+    private final long pageWrites;
+    private final long pageFetches;
+    private final long pageMarks;
+    private final long recordSequentialReads;
+    private final long recordIndexedReads;
+    private final long recordInserts;
+    private final long recordUpdates;
+    private final long recordDeletes;
+    private final long recordBackouts;
+    private final long recordPurges;
+    private final long recordExpunges;
+    private final long memoryUsed;
+    private final long memoryAllocated;
+    private final long maxMemoryUsed;
+    private final long statements;
+    private final long activeStatements;
+
+    private MonitoringStatistics(long[] values) {
+        pageReads = values[0];
+        pageWrites = values[1];
+        pageFetches = values[2];
+        pageMarks = values[3];
+        recordSequentialReads = values[4];
+        recordIndexedReads = values[5];
+        recordInserts = values[6];
+        recordUpdates = values[7];
+        recordDeletes = values[8];
+        recordBackouts = values[9];
+        recordPurges = values[10];
+        recordExpunges = values[11];
+        memoryUsed = values[12];
+        memoryAllocated = values[13];
+        maxMemoryUsed = values[MAX_MEMORY_USED_INDEX];
+        statements = values[15];
+        activeStatements = values[16];
+    }
+
+    /**
+     * Wraps the selects of the monitoring tables in an {@code EXECUTE BLOCK} which runs them in an autonomous
+     * transaction: the monitoring tables are a snapshot per transaction, so this reads current values without
+     * committing or otherwise affecting the transaction of the connection.
+     */
+    private static String captureBlock(String selects) {
+        StringBuilder block = new StringBuilder("execute block returns (");
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            block.append(i == 0 ? "" : ", ").append('v').append(i).append(" bigint");
+        }
+        return block.append(")\nas\nbegin\n")
+                .append("in autonomous transaction do\nbegin\n")
+                .append(selects)
+                .append("end\nsuspend;\nend")
+                .toString();
+    }
+
+    private long[] toArray() {
+        return new long[] { pageReads, pageWrites, pageFetches, pageMarks, recordSequentialReads, recordIndexedReads,
+                recordInserts, recordUpdates, recordDeletes, recordBackouts, recordPurges, recordExpunges, memoryUsed,
+                memoryAllocated, maxMemoryUsed, statements, activeStatements };
+    }
+
+    /**
+     * Captures the current statistics of the database of {@code connection}.
+     * <p>
+     * The monitoring tables are read in a single autonomous transaction, so the values are consistent and current,
+     * and the transaction and auto-commit mode of the connection are not changed.
+     * </p>
+     *
+     * @param connection
+     *         Connection to the database
+     * @return current statistics
+     * @throws SQLException
+     *         for errors querying the monitoring tables
+     */
+    public static MonitoringStatistics capture(Connection connection) throws SQLException {
+        return capture(connection, DATABASE_STATISTICS_QUERY);
+    }
+
+    /**
+     * Captures the current statistics of {@code connection} itself (its attachment), excluding other connections.
+     * <p>
+     * The statement counts are those of the connection, including the statement reading the monitoring tables. See
+     * {@link #capture(Connection)} for the transaction handling.
+     * </p>
+     *
+     * @param connection
+     *         Connection to the database
+     * @return current statistics of the connection
+     * @throws SQLException
+     *         for errors querying the monitoring tables
+     */
+    public static MonitoringStatistics captureConnection(Connection connection) throws SQLException {
+        return capture(connection, CONNECTION_STATISTICS_QUERY);
+    }
+
+    private static MonitoringStatistics capture(Connection connection, String statisticsQuery)
+            throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(statisticsQuery)) {
+            if (!rs.next()) {
+                throw new SQLException("No statistics in monitoring tables");
+            }
+            long[] values = new long[VALUE_COUNT];
+            for (int i = 0; i < VALUE_COUNT; i++) {
+                values[i] = rs.getLong(i + 1);
+            }
+            return new MonitoringStatistics(values);
+        }
+    }
+
+    /**
+     * Computes the difference between this snapshot and an earlier snapshot.
+     * <p>
+     * For the memory and statement values, the result is the change between the snapshots, which can be negative,
+     * except for {@link #getMaxMemoryUsed()}: a high-water mark has no meaningful difference, so the result has the
+     * value of this snapshot.
+     * </p>
+     *
+     * @param before
+     *         Earlier snapshot
+     * @return statistics between {@code before} and this snapshot
+     */
+    public MonitoringStatistics minus(MonitoringStatistics before) {
+        long[] values = toArray();
+        long[] beforeValues = before.toArray();
+        for (int i = 0; i < values.length; i++) {
+            if (i != MAX_MEMORY_USED_INDEX) {
+                values[i] -= beforeValues[i];
+            }
+        }
+        return new MonitoringStatistics(values);
+    }
+
+    /**
+     * @return number of pages read from disk
+     */
+    public long getPageReads() {
+        return pageReads;
+    }
+
+    /**
+     * @return number of pages written to disk
+     */
+    public long getPageWrites() {
+        return pageWrites;
+    }
+
+    /**
+     * @return number of pages fetched from the page cache (logical reads)
+     */
+    public long getPageFetches() {
+        return pageFetches;
+    }
+
+    /**
+     * @return number of pages marked as modified in the page cache
+     */
+    public long getPageMarks() {
+        return pageMarks;
+    }
+
+    /**
+     * @return number of records read sequentially (natural scans)
+     */
+    public long getRecordSequentialReads() {
+        return recordSequentialReads;
+    }
+
+    /**
+     * @return number of records read through an index
+     */
+    public long getRecordIndexedReads() {
+        return recordIndexedReads;
+    }
+
+    /**
+     * @return number of records inserted
+     */
+    public long getRecordInserts() {
+        return recordInserts;
+    }
+
+    /**
+     * @return number of records updated
+     */
+    public long getRecordUpdates() {
+        return recordUpdates;
+    }
+
+    /**
+     * @return number of records deleted
+     */
+    public long getRecordDeletes() {
+        return recordDeletes;
+    }
+
+    /**
+     * @return number of record versions backed out (undone changes of rolled back transactions or savepoints)
+     */
+    public long getRecordBackouts() {
+        return recordBackouts;
+    }
+
+    /**
+     * @return number of record versions purged (garbage collected old versions of records)
+     */
+    public long getRecordPurges() {
+        return recordPurges;
+    }
+
+    /**
+     * @return number of records expunged (garbage collected deleted records)
+     */
+    public long getRecordExpunges() {
+        return recordExpunges;
+    }
+
+    /**
+     * @return memory in use by the database, in bytes
+     */
+    public long getMemoryUsed() {
+        return memoryUsed;
+    }
+
+    /**
+     * @return memory allocated from the operating system for the database, in bytes
+     */
+    public long getMemoryAllocated() {
+        return memoryAllocated;
+    }
+
+    /**
+     * @return maximum memory in use by the database, in bytes (a high-water mark, also after
+     * {@link #minus(MonitoringStatistics)})
+     */
+    public long getMaxMemoryUsed() {
+        return maxMemoryUsed;
+    }
+
+    /**
+     * @return number of allocated (not executed) statements of other connections (as visible to the user), or of the
+     * connection itself for {@link #captureConnection(Connection)}, at the time of the snapshot
+     */
+    public long getStatements() {
+        return statements;
+    }
+
+    /**
+     * @return number of executing statements of other connections (as visible to the user), or of the connection
+     * itself for {@link #captureConnection(Connection)}, at the time of the snapshot
+     */
+    public long getActiveStatements() {
+        return activeStatements;
+    }
+
+    @Override
+    public String toString() {
+        return "MonitoringStatistics{"
+                + "pageReads=" + pageReads
+                + ", pageWrites=" + pageWrites
+                + ", pageFetches=" + pageFetches
+                + ", pageMarks=" + pageMarks
+                + ", recordSequentialReads=" + recordSequentialReads
+                + ", recordIndexedReads=" + recordIndexedReads
+                + ", recordInserts=" + recordInserts
+                + ", recordUpdates=" + recordUpdates
+                + ", recordDeletes=" + recordDeletes
+                + ", recordBackouts=" + recordBackouts
+                + ", recordPurges=" + recordPurges
+                + ", recordExpunges=" + recordExpunges
+                + ", memoryUsed=" + memoryUsed
+                + ", memoryAllocated=" + memoryAllocated
+                + ", maxMemoryUsed=" + maxMemoryUsed
+                + ", statements=" + statements
+                + ", activeStatements=" + activeStatements
+                + '}';
+    }
+}
@@ -0,0 +1,372 @@
+package org.firebirdsql.testcontainers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Minimal connection pool, used by {@link FirebirdContainer#getDataSource()} when HikariCP is not on the classpath.
+ * <p>
+ * Connections are created on demand up to the maximum pool size, and are kept open when closed by the user. On return
+ * to the pool, statements left open by the user are closed, an active transaction is rolled back, and auto-commit,
+ * read-only and transaction isolation are reset. An idle connection is validated before reuse if it has not been used
+ * for a while.
+ * </p>
+ * <p>
+ * Statements, result sets and database metadata obtained from a connection are wrapped, so their
+ * {@code getConnection()} and {@code getStatement()} return the wrappers, and never the physical connection.
+ * </p>
+ */
+final class PooledDataSource implements DataSource, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PooledDataSource.class);
+
+    private static final long CONNECTION_TIMEOUT_SECONDS = 30;
+    private static final long VALIDATION_IDLE_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    /**
+     * Creates a new physical connection.
+     */
+    @FunctionalInterface
+    interface ConnectionFactory {
+        Connection createConnection() throws SQLException;
+    }
+
+    private final ConnectionFactory connectionFactory;
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idleConnections = new ConcurrentLinkedDeque<>();
+    private volatile boolean closed;
+    private PrintWriter logWriter;
+
+    PooledDataSource(ConnectionFactory connectionFactory, int maximumPoolSize) {
+        this.connectionFactory = connectionFactory;
+        this.permits = new Semaphore(maximumPoolSize, true);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        checkOpen();
+        try {
+            if (!permits.tryAcquire(CONNECTION_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "No connection available within " + CONNECTION_TIMEOUT_SECONDS + " seconds");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection", e);
+        }
+        try {
+            PooledConnection pooledConnection = takeIdleConnection();
+            if (pooledConnection == null) {
+                pooledConnection = new PooledConnection(connectionFactory.createConnection());
+            }
+            return pooledConnection.createHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection takeIdleConnection() {
+        PooledConnection pooledConnection;
+        while ((pooledConnection = idleConnections.pollFirst()) != null) {
+            if (pooledConnection.isUsable()) {
+                return pooledConnection;
+            }
+            pooledConnection.closePhysical();
+        }
+        return null;
+    }
+
+    private void release(PooledConnection pooledConnection) {
+        try {
+            if (!closed && pooledConnection.reset()) {
+                idleConnections.addFirst(pooledConnection);
+                if (closed) {
+                    // The pool was closed concurrently
+                    close();
+                }
+            } else {
+                pooledConnection.closePhysical();
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void checkOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Data source is closed");
+        }
+    }
+
+    /**
+     * Closes the pool and its idle connections. Connections in use are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        PooledConnection pooledConnection;
+        while ((pooledConnection = idleConnections.pollFirst()) != null) {
+            pooledConnection.closePhysical();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Connections use the credentials of the container");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return logWriter;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        this.logWriter = out;
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Login timeout is not supported");
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return 0;
+    }
+
+    @Override
+    public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException("Parent logger is not supported");
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    /**
+     * Physical connection with its initial state.
+     */
+    private final class PooledConnection {
+
+        private final Connection connection;
+        private final int defaultTransactionIsolation;
+        private long lastUsedNanos;
+
+        PooledConnection(Connection connection) throws SQLException {
+            this.connection = connection;
+            this.defaultTransactionIsolation = connection.getTransactionIsolation();
+            this.lastUsedNanos = System.nanoTime();
+        }
+
+        Connection createHandle() {
+            return (Connection) createProxy(Connection.class, new ConnectionHandle(this));
+        }
+
+        boolean isUsable() {
+            try {
+                if (System.nanoTime() - lastUsedNanos < VALIDATION_IDLE_NANOS) {
+                    return !connection.isClosed();
+                }
+                return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                log.debug("Discarding invalid pooled connection", e);
+                return false;
+            }
+        }
+
+        /**
+         * Resets the connection to its initial state.
+         *
+         * @return {@code true} if the connection can be reused
+         */
+        boolean reset() {
+            try {
+                if (connection.isClosed()) {
+                    return false;
+                }
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+                if (connection.isReadOnly()) {
+                    connection.setReadOnly(false);
+                }
+                if (connection.getTransactionIsolation() != defaultTransactionIsolation) {
+                    connection.setTransactionIsolation(defaultTransactionIsolation);
+                }
+                connection.clearWarnings();
+                lastUsedNanos = System.nanoTime();
+                return true;
+            } catch (SQLException e) {
+                log.debug("Discarding pooled connection which could not be reset", e);
+                return false;
+            }
+        }
+
+        void closePhysical() {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                log.debug("Error closing pooled connection", e);
+            }
+        }
+    }
+
+    /**
+     * Connection handed out to the user; closing it returns the physical connection to the pool.
+     */
+    private final class ConnectionHandle implements InvocationHandler {
+
+        private final Set<Statement> openStatements = ConcurrentHashMap.newKeySet();
+        private PooledConnection pooledConnection;
+
+        ConnectionHandle(PooledConnection pooledConnection) {
+            this.pooledConnection = pooledConnection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+            case "close":
+                synchronized (this) {
+                    if (pooledConnection != null) {
+                        PooledConnection released = pooledConnection;
+                        pooledConnection = null;
+                        closeStatements();
+                        release(released);
+                    }
+                }
+                return null;
+            case "isClosed":
+                synchronized (this) {
+                    return pooledConnection == null;
+                }
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "PooledConnection@" + Integer.toHexString(System.identityHashCode(proxy));
+            default:
+                break;
+            }
+            Connection connection;
+            synchronized (this) {
+                if (pooledConnection == null) {
+                    throw new SQLException("Connection is closed");
+                }
+                connection = pooledConnection.connection;
+            }
+            Object result = invokeDelegate(connection, method, args);
+            if (result instanceof Statement) {
+                openStatements.add((Statement) result);
+                return createProxy(method.getReturnType(), new DelegateHandle(this, result, proxy));
+            } else if (result instanceof DatabaseMetaData) {
+                return createProxy(DatabaseMetaData.class, new DelegateHandle(this, result, proxy));
+            }
+            return result;
+        }
+
+        private void closeStatements() {
+            for (Statement statement : openStatements) {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    log.debug("Error closing statement left open", e);
+                }
+            }
+            openStatements.clear();
+        }
+    }
+
+    /**
+     * Statement, result set or database metadata obtained from a {@link ConnectionHandle}.
+     */
+    private static final class DelegateHandle implements InvocationHandler {
+
+        private final ConnectionHandle connectionHandle;
+        private final Object delegate;
+        // Connection proxy for statements and metadata, statement proxy (or null) for result sets
+        private final Object owner;
+
+        DelegateHandle(ConnectionHandle connectionHandle, Object delegate, Object owner) {
+            this.connectionHandle = connectionHandle;
+            this.delegate = delegate;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+            case "getConnection":
+            case "getStatement":
+                if (method.getParameterCount() == 0) {
+                    return owner;
+                }
+                break;
+            case "close":
+                if (delegate instanceof Statement) {
+                    connectionHandle.openStatements.remove(delegate);
+                }
+                break;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                break;
+            }
+            Object result = invokeDelegate(delegate, method, args);
+            if (result instanceof ResultSet && method.getReturnType() == ResultSet.class) {
+                // Result sets of metadata have no statement
+                return createProxy(ResultSet.class,
+                        new DelegateHandle(connectionHandle, result, delegate instanceof Statement ? proxy : null));
+            }
+            return result;
+        }
+    }
+
+    private static Object createProxy(Class<?> type, InvocationHandler handler) {
+        return Proxy.newProxyInstance(PooledDataSource.class.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+
+    private static Object invokeDelegate(Object delegate, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.firebirdsql.testcontainers;
+
+/**
+ * Firebird server architecture, as configured with {@code ServerMode} in {@code firebird.conf}.
+ *
+ * @see FirebirdContainer#withServerMode(ServerMode)
+ */
+public enum ServerMode {
+
+    /**
+     * SuperServer: single process, shared page cache.
+     */
+    SUPER("Super"),
+    /**
+     * SuperClassic: single process, page cache per connection.
+     */
+    SUPER_CLASSIC("SuperClassic"),
+    /**
+     * Classic: process per connection, page cache per connection.
+     */
+    CLASSIC("Classic"),
+    ;
+
+    private final String configValue;
+
+    ServerMode(String configValue) {
+        this.configValue = configValue;
+    }
+
+    /**
+     * @return value of this server mode in {@code firebird.conf}
+     */
+    public String getConfigValue() {
+        return configValue;
+    }
+}
@@ -0,0 +1,113 @@
+package org.firebirdsql.testcontainers;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Durations of the phases of the startup of a {@link FirebirdContainer}.
+ * <p>
+ * A phase which did not occur (e.g. container creation when an existing container was reused) has no duration.
+ * </p>
+ *
+ * @see FirebirdContainer#getStartupTimings()
+ * @see FirebirdContainer#withStartupListener(java.util.function.Consumer)
+ */
+public final class StartupTimings {
+
+    /**
+     * Startup phases, in order of occurrence.
+     */
+    public enum Phase {
+        /**
+         * Configuring the container (environment variables, etc.).
+         */
+        CONFIGURE,
+        /**
+         * Resolving the Docker image, including pulling it if it is not available locally.
+         */
+        IMAGE_RESOLUTION,
+        /**
+         * Creating the Docker container.
+         */
+        CONTAINER_CREATE,
+        /**
+         * Starting the Docker container.
+         */
+        CONTAINER_START,
+        /**
+         * Initialization of the image (creating users and database) until the Firebird server responds to a connect
+         * request.
+         */
+        SERVER_READY,
+        /**
+         * Restoring the database from a backup (only when configured with
+         * {@link FirebirdContainer#withRestoreFrom(java.nio.file.Path)}).
+         */
+        DATABASE_RESTORE,
+        /**
+         * Changing database properties with {@code gfix}, and creating additional databases and users (only when
+         * configured, e.g. with {@link FirebirdContainer#withForcedWrites(boolean)} or
+         * {@link FirebirdContainer#withAdditionalDatabase(DatabaseDefinition)}).
+         */
+        DATABASE_PROVISIONING,
+        /**
+         * Until the first successful test query over JDBC.
+         */
+        DATABASE_READY,
+        /**
+         * Executing init scripts (if any).
+         */
+        INIT_SCRIPTS,
+    }
+
+    private final String dockerImageName;
+    private final Map<Phase, Duration> durations;
+
+    StartupTimings(String dockerImageName, Map<Phase, Duration> durations) {
+        this.dockerImageName = dockerImageName;
+        this.durations = durations.isEmpty()
+                ? Collections.emptyMap()
+                : Collections.unmodifiableMap(new EnumMap<>(durations));
+    }
+
+    /**
+     * @return Docker image name of the container
+     */
+    public String getDockerImageName() {
+        return dockerImageName;
+    }
+
+    /**
+     * @param phase
+     *         Startup phase
+     * @return duration of {@code phase}, or empty if the phase did not occur
+     */
+    public Optional<Duration> getDuration(Phase phase) {
+        return Optional.ofNullable(durations.get(phase));
+    }
+
+    /**
+     * @return durations of all phases which occurred, in order of occurrence
+     */
+    public Map<Phase, Duration> getDurations() {
+        return durations;
+    }
+
+    /**
+     * @return total duration of all phases
+     */
+    public Duration getTotal() {
+        return durations.values().stream().reduce(Duration.ZERO, Duration::plus);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("StartupTimings{image=").append(dockerImageName);
+        durations.forEach((phase, duration) -> sb.append(", ").append(phase).append('=')
+                .append(duration.toMillis()).append("ms"));
+        return sb.append(", total=").append(getTotal().toMillis()).append("ms}").toString();
+    }
+}
@@ -0,0 +1,318 @@
+package org.firebirdsql.testcontainers;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Plan and execution statistics of a statement, with assertions to make performance expectations part of a test.
+ * <p>
+ * The plan is obtained from the {@code FirebirdPreparedStatement} extension of Jaybird (the legacy plan, and on
+ * Firebird 3.0 and higher the explained plan), and the statistics are the difference of the statistics of the
+ * connection in the monitoring tables ({@link MonitoringStatistics#captureConnection(Connection)}) before and after
+ * executing the statement and fetching all rows. Example:
+ * </p>
+ * <pre>{@code
+ * try (Connection connection = container.createConnection("")) {
+ *     StatementProfile profile = StatementProfile.profile(connection,
+ *             "select * from customer where name = ?", "Alice");
+ *     profile.assertUsesIndex("IDX_CUSTOMER_NAME");
+ *     profile.assertNoNaturalScan();
+ *     profile.assertPageFetchesBelow(20);
+ * }
+ * }</pre>
+ * <p>
+ * Requires Jaybird as the JDBC driver. The assertion methods throw {@link AssertionError}, so they work with any test
+ * framework.
+ * </p>
+ */
+public final class StatementProfile {
+
+    private static final String FIREBIRD_PREPARED_STATEMENT_CLASS = "org.firebirdsql.jdbc.FirebirdPreparedStatement";
+    private static final Pattern PLAN_INDEX_PATTERN = Pattern.compile("\\bINDEX\\s*\\(([^)]*)\\)");
+    private static final Pattern PLAN_ORDER_PATTERN = Pattern.compile("\\bORDER\\s+(\"(?:[^\"]|\"\")+\"|[\\w$]+)");
+    private static final Pattern PLAN_NATURAL_PATTERN = Pattern.compile("\\bNATURAL\\b");
+
+    private final String sql;
+    private final String plan;
+    private final String explainedPlan;
+    private final long rowCount;
+    private final Duration elapsed;
+    private final MonitoringStatistics statistics;
+
+    private StatementProfile(String sql, String plan, String explainedPlan, long rowCount, Duration elapsed,
+            MonitoringStatistics statistics) {
+        this.sql = sql;
+        this.plan = plan;
+        this.explainedPlan = explainedPlan;
+        this.rowCount = rowCount;
+        this.elapsed = elapsed;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Prepares and executes a statement, fetching all rows, and captures its plan and statistics.
+     * <p>
+     * The connection must be in auto-commit mode, so profiling cannot commit or roll back work of the caller. The
+     * statement is executed and all rows are fetched in a single transaction, which is committed (or rolled back if
+     * the statement fails), after which auto-commit is enabled again.
+     * </p>
+     *
+     * @param connection
+     *         Jaybird connection
+     * @param sql
+     *         Statement text
+     * @param parameters
+     *         Values of the parameters of the statement
+     * @return profile of the statement
+     * @throws SQLException
+     *         for errors preparing or executing the statement, or querying the monitoring tables
+     * @throws IllegalStateException
+     *         if the connection is not a Jaybird connection, or not in auto-commit mode
+     */
+    public static StatementProfile profile(Connection connection, String sql, Object... parameters)
+            throws SQLException {
+        if (!connection.getAutoCommit()) {
+            throw new IllegalStateException("StatementProfile requires a connection in auto-commit mode");
+        }
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            String plan = getPlan(statement, "getExecutionPlan");
+            String explainedPlan;
+            try {
+                explainedPlan = getPlan(statement, "getExplainedExecutionPlan");
+            } catch (SQLException e) {
+                // Not supported before Firebird 3.0
+                explainedPlan = null;
+            }
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+
+            MonitoringStatistics before = MonitoringStatistics.captureConnection(connection);
+            connection.setAutoCommit(false);
+            long rowCount = 0;
+            long startNanos = System.nanoTime();
+            try {
+                if (statement.execute()) {
+                    try (ResultSet rs = statement.getResultSet()) {
+                        while (rs.next()) {
+                            rowCount++;
+                        }
+                    }
+                } else {
+                    rowCount = Math.max(0, statement.getUpdateCount());
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+            MonitoringStatistics statistics = MonitoringStatistics.captureConnection(connection).minus(before);
+            return new StatementProfile(sql, plan, explainedPlan, rowCount, elapsed, statistics);
+        }
+    }
+
+    private static String getPlan(PreparedStatement statement, String methodName) throws SQLException {
+        Class<?> firebirdStatementClass;
+        try {
+            firebirdStatementClass = Class.forName(FIREBIRD_PREPARED_STATEMENT_CLASS, false,
+                    statement.getClass().getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("StatementProfile requires Jaybird as the JDBC driver", e);
+        }
+        if (!statement.isWrapperFor(firebirdStatementClass)) {
+            throw new IllegalStateException("StatementProfile requires a Jaybird connection, statement was: "
+                    + statement.getClass().getName());
+        }
+        try {
+            Method method = firebirdStatementClass.getMethod(methodName);
+            return (String) method.invoke(statement.unwrap(firebirdStatementClass));
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw new IllegalStateException("Could not obtain plan with " + methodName, e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new SQLException("Plan method " + methodName + " not supported by this Jaybird version", e);
+        }
+    }
+
+    /**
+     * @return statement text
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return legacy plan of the statement (e.g. {@code PLAN (CUSTOMER INDEX (IDX_CUSTOMER_NAME))})
+     */
+    public String getPlan() {
+        return plan;
+    }
+
+    /**
+     * @return explained plan of the statement, or empty if not supported by the server (Firebird 2.5)
+     */
+    public Optional<String> getExplainedPlan() {
+        return Optional.ofNullable(explainedPlan);
+    }
+
+    /**
+     * @return number of rows fetched for a query, otherwise the update count
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return time to execute the statement and fetch all rows, as measured by the client
+     */
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * @return statistics of the connection while executing the statement
+     */
+    public MonitoringStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @return names of the indexes in the legacy plan (uppercase, unless quoted)
+     */
+    public Set<String> getIndexNames() {
+        Set<String> indexNames = new LinkedHashSet<>();
+        String planText = plan != null ? plan : "";
+        Matcher indexMatcher = PLAN_INDEX_PATTERN.matcher(planText);
+        while (indexMatcher.find()) {
+            for (String indexName : indexMatcher.group(1).split(",")) {
+                indexNames.add(normalizeName(indexName));
+            }
+        }
+        Matcher orderMatcher = PLAN_ORDER_PATTERN.matcher(planText);
+        while (orderMatcher.find()) {
+            indexNames.add(normalizeName(orderMatcher.group(1)));
+        }
+        return indexNames;
+    }
+
+    private static String normalizeName(String name) {
+        String trimmed = name.trim();
+        if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+            return trimmed.substring(1, trimmed.length() - 1).replace("\"\"", "\"");
+        }
+        return trimmed.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Asserts that the plan uses an index.
+     *
+     * @param indexName
+     *         Name of the index (unquoted names are case-insensitive)
+     * @return this profile
+     * @throws AssertionError
+     *         if the plan does not use the index
+     */
+    public StatementProfile assertUsesIndex(String indexName) {
+        if (!getIndexNames().contains(normalizeName(indexName))) {
+            throw new AssertionError("Expected plan to use index " + indexName + ", was: " + plan);
+        }
+        return this;
+    }
+
+    /**
+     * Asserts that the plan does not read any table in natural order (a full table scan).
+     *
+     * @return this profile
+     * @throws AssertionError
+     *         if the plan contains a natural scan
+     */
+    public StatementProfile assertNoNaturalScan() {
+        if (plan != null && PLAN_NATURAL_PATTERN.matcher(plan).find()) {
+            throw new AssertionError("Expected plan without natural scan, was: " + plan);
+        }
+        return this;
+    }
+
+    /**
+     * Asserts that the statement read fewer than {@code maxPageReads} pages from disk.
+     * <p>
+     * Pages already in the page cache are not read from disk; use {@link #assertPageFetchesBelow(long)} for a
+     * measure that does not depend on the cache.
+     * </p>
+     *
+     * @param maxPageReads
+     *         Exclusive upper bound of page reads
+     * @return this profile
+     * @throws AssertionError
+     *         if the statement read {@code maxPageReads} pages or more
+     */
+    public StatementProfile assertPageReadsBelow(long maxPageReads) {
+        if (statistics.getPageReads() >= maxPageReads) {
+            throw new AssertionError("Expected fewer than " + maxPageReads + " page reads, was: "
+                    + statistics.getPageReads() + " for: " + sql);
+        }
+        return this;
+    }
+
+    /**
+     * Asserts that the statement fetched fewer than {@code maxPageFetches} pages (from the page cache or disk).
+     *
+     * @param maxPageFetches
+     *         Exclusive upper bound of page fetches
+     * @return this profile
+     * @throws AssertionError
+     *         if the statement fetched {@code maxPageFetches} pages or more
+     */
+    public StatementProfile assertPageFetchesBelow(long maxPageFetches) {
+        if (statistics.getPageFetches() >= maxPageFetches) {
+            throw new AssertionError("Expected fewer than " + maxPageFetches + " page fetches, was: "
+                    + statistics.getPageFetches() + " for: " + sql);
+        }
+        return this;
+    }
+
+    /**
+     * Asserts that the statement read fewer than {@code maxRecordReads} records (sequential and indexed reads).
+     *
+     * @param maxRecordReads
+     *         Exclusive upper bound of record reads
+     * @return this profile
+     * @throws AssertionError
+     *         if the statement read {@code maxRecordReads} records or more
+     */
+    public StatementProfile assertRecordReadsBelow(long maxRecordReads) {
+        long recordReads = statistics.getRecordSequentialReads() + statistics.getRecordIndexedReads();
+        if (recordReads >= maxRecordReads) {
+            throw new AssertionError("Expected fewer than " + maxRecordReads + " record reads, was: " + recordReads
+                    + " for: " + sql);
+        }
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "StatementProfile{"
+                + "sql='" + sql + '\''
+                + ", plan='" + plan + '\''
+                + ", rowCount=" + rowCount
+                + ", elapsed=" + elapsed.toMillis() + "ms"
+                + ", statistics=" + statistics
+                + '}';
+    }
+}
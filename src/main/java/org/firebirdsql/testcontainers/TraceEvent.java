@@ -0,0 +1,105 @@
+package org.firebirdsql.testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Event of a Firebird trace session.
+ * <p>
+ * An event consists of a header line with the timestamp, process and event type (e.g.
+ * {@code 2025-01-31T12:00:00.1230 (123:0x7f12a4b0c340) EXECUTE_STATEMENT_FINISH}), followed by the details of the
+ * event as logged by the trace plugin.
+ * </p>
+ *
+ * @see TraceSession
+ */
+public final class TraceEvent {
+
+    private static final Pattern HEADER_PATTERN =
+            Pattern.compile("^(\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}(?:\\.\\d+)?) \\((\\d+):([^)]*)\\) (.+)$");
+
+    private final LocalDateTime timestamp;
+    private final String eventType;
+    private final List<String> lines;
+
+    private TraceEvent(LocalDateTime timestamp, String eventType, List<String> lines) {
+        this.timestamp = timestamp;
+        this.eventType = eventType;
+        this.lines = Collections.unmodifiableList(new ArrayList<>(lines));
+    }
+
+    /**
+     * @param line
+     *         Line of trace output
+     * @return {@code true} if {@code line} is the header of an event
+     */
+    static boolean isHeader(String line) {
+        return HEADER_PATTERN.matcher(line).matches();
+    }
+
+    /**
+     * @param lines
+     *         Lines of the event, starting with the header line
+     * @return trace event
+     * @throws IllegalArgumentException
+     *         if the first line is not an event header
+     */
+    static TraceEvent of(List<String> lines) {
+        Matcher matcher = lines.isEmpty() ? null : HEADER_PATTERN.matcher(lines.get(0));
+        if (matcher == null || !matcher.matches()) {
+            throw new IllegalArgumentException("Not a trace event header: " + (lines.isEmpty() ? "" : lines.get(0)));
+        }
+        // Remove empty lines separating this event from the next
+        int end = lines.size();
+        while (end > 1 && lines.get(end - 1).trim().isEmpty()) {
+            end--;
+        }
+        return new TraceEvent(LocalDateTime.parse(matcher.group(1)), matcher.group(4).trim(), lines.subList(0, end));
+    }
+
+    /**
+     * @return timestamp of the event (in the time zone of the server)
+     */
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return type of the event, for example {@code EXECUTE_STATEMENT_FINISH} or
+     * {@code FAILED EXECUTE_STATEMENT_FINISH}
+     */
+    public String getEventType() {
+        return eventType;
+    }
+
+    /**
+     * @return lines of the event, including the header line
+     */
+    public List<String> getLines() {
+        return lines;
+    }
+
+    /**
+     * @return text of the event, including the header line
+     */
+    public String getText() {
+        return String.join("\n", lines);
+    }
+
+    /**
+     * @return statement execution details if this is an {@code EXECUTE_STATEMENT_FINISH} event, otherwise empty
+     */
+    public Optional<TraceStatement> toStatement() {
+        return TraceStatement.parse(this);
+    }
+
+    @Override
+    public String toString() {
+        return getText();
+    }
+}
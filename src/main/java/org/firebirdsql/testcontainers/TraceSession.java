@@ -0,0 +1,276 @@
+package org.firebirdsql.testcontainers;
+
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.model.Frame;
+import com.github.dockerjava.api.model.StreamType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Running Firebird trace session, started with {@link FirebirdContainer#startTraceSession(String, Consumer)}.
+ * <p>
+ * The trace output is streamed from the container and passed to the consumer one {@link TraceEvent} at a time, so the
+ * trace log is not buffered in memory. An event is passed to the consumer when the next event starts, or when the
+ * session is closed. The consumer is called on a thread of the Docker client (or the thread closing the session), one
+ * event at a time and without holding the lock of the session, and must not block for long.
+ * </p>
+ * <p>
+ * Closing the session stops the trace session in the server, and passes the remaining events to the consumer.
+ * </p>
+ */
+public final class TraceSession implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(TraceSession.class);
+
+    /**
+     * Trace configuration which logs all executed statements of all databases, with plan and performance counters.
+     */
+    public static final String DEFAULT_CONFIGURATION = "database\n"
+            + "{\n"
+            + "\tenabled = true\n"
+            + "\tlog_statement_finish = true\n"
+            + "\tprint_plan = true\n"
+            + "\tprint_perf = true\n"
+            + "\ttime_threshold = 0\n"
+            + "\tmax_sql_length = 8192\n"
+            + "}\n";
+
+    private static final Pattern SESSION_STARTED_PATTERN = Pattern.compile("Trace session ID (\\d+) started");
+    private static final Duration STOP_TIMEOUT = Duration.ofSeconds(10);
+    private static final int MAX_ERROR_LINES = 20;
+
+    private final Consumer<TraceEvent> eventConsumer;
+    private final IntConsumer stopAction;
+    private final CompletableFuture<Integer> sessionId = new CompletableFuture<>();
+    private final OutputCallback callback = new OutputCallback();
+    private final List<String> errorLines = new ArrayList<>();
+    private final Queue<TraceEvent> completedEvents = new ArrayDeque<>();
+    // Keeps events in order when the session is closed while the Docker client thread passes events to the consumer
+    private final Object dispatchLock = new Object();
+    private List<String> eventLines;
+    private boolean closed;
+
+    /**
+     * @param eventConsumer
+     *         Consumer of the trace events
+     * @param stopAction
+     *         Stops the trace session with the id in the server
+     */
+    TraceSession(Consumer<TraceEvent> eventConsumer, IntConsumer stopAction) {
+        this.eventConsumer = eventConsumer;
+        this.stopAction = stopAction;
+    }
+
+    /**
+     * @return callback to receive the output of the trace manager
+     */
+    ResultCallback<Frame> getCallback() {
+        return callback;
+    }
+
+    /**
+     * Waits until the server has started the trace session.
+     *
+     * @param timeout
+     *         Maximum time to wait
+     * @throws IllegalStateException
+     *         if the trace session could not be started
+     */
+    void awaitStarted(Duration timeout) {
+        try {
+            sessionId.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            closeCallback();
+            throw new IllegalStateException("Could not start trace session", e.getCause());
+        } catch (TimeoutException e) {
+            closeCallback();
+            throw new IllegalStateException("Trace session not started within " + timeout + ": " + getErrorOutput());
+        } catch (InterruptedException e) {
+            closeCallback();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while starting trace session", e);
+        }
+    }
+
+    /**
+     * @return id of the trace session in the server
+     */
+    public int getSessionId() {
+        return sessionId.join();
+    }
+
+    /**
+     * Stops the trace session, and passes the remaining events to the consumer.
+     *
+     * @throws IllegalStateException
+     *         if the trace session could not be stopped
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        try {
+            stopAction.accept(getSessionId());
+            if (!callback.awaitCompletion(STOP_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Trace session {} output did not end within {}", getSessionId(), STOP_TIMEOUT);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeCallback();
+            finish(null);
+        }
+    }
+
+    private void closeCallback() {
+        try {
+            callback.close();
+        } catch (IOException e) {
+            log.debug("Error closing trace output stream", e);
+        }
+    }
+
+    private synchronized String getErrorOutput() {
+        return String.join("\n", errorLines);
+    }
+
+    private synchronized void onLine(String line, boolean stderr) {
+        if (!sessionId.isDone()) {
+            Matcher matcher = SESSION_STARTED_PATTERN.matcher(line);
+            if (!stderr && matcher.find()) {
+                sessionId.complete(Integer.parseInt(matcher.group(1)));
+                log.debug("Started trace session {}", matcher.group(1));
+            } else if (errorLines.size() < MAX_ERROR_LINES) {
+                errorLines.add(line);
+            }
+        } else if (stderr) {
+            log.warn("Trace session {}: {}", sessionId.join(), line);
+        } else if (TraceEvent.isHeader(line)) {
+            completeEvent();
+            eventLines = new ArrayList<>();
+            eventLines.add(line);
+        } else if (eventLines != null) {
+            eventLines.add(line);
+        }
+    }
+
+    private synchronized void completeEvent() {
+        if (eventLines != null) {
+            completedEvents.add(TraceEvent.of(eventLines));
+            eventLines = null;
+        }
+    }
+
+    private synchronized TraceEvent pollCompletedEvent() {
+        return completedEvents.poll();
+    }
+
+    /**
+     * Passes the completed events to the consumer, outside the lock of the session.
+     */
+    private void dispatchEvents() {
+        synchronized (dispatchLock) {
+            TraceEvent event;
+            while ((event = pollCompletedEvent()) != null) {
+                try {
+                    eventConsumer.accept(event);
+                } catch (RuntimeException e) {
+                    log.warn("Trace event consumer failed for event {}", event.getEventType(), e);
+                }
+            }
+        }
+    }
+
+    private void finish(Throwable error) {
+        synchronized (this) {
+            callback.flush();
+            completeEvent();
+            if (!sessionId.isDone()) {
+                String output = getErrorOutput();
+                sessionId.completeExceptionally(error != null
+                        ? error
+                        : new IllegalStateException("Trace manager ended without starting a session: " + output));
+            }
+        }
+        dispatchEvents();
+    }
+
+    /**
+     * Splits the stdout and stderr frames of the trace manager into lines.
+     */
+    private final class OutputCallback extends ResultCallback.Adapter<Frame> {
+
+        private final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+
+        @Override
+        public void onNext(Frame frame) {
+            boolean isStderr = frame.getStreamType() == StreamType.STDERR;
+            ByteArrayOutputStream buffer = isStderr ? stderr : stdout;
+            synchronized (TraceSession.this) {
+                for (byte b : frame.getPayload()) {
+                    if (b == '\n') {
+                        emitLine(buffer, isStderr);
+                    } else {
+                        buffer.write(b);
+                    }
+                }
+            }
+            dispatchEvents();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            finish(throwable);
+            super.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            finish(null);
+            super.onComplete();
+        }
+
+        /**
+         * Emits incomplete last lines.
+         */
+        void flush() {
+            if (stdout.size() > 0) {
+                emitLine(stdout, false);
+            }
+            if (stderr.size() > 0) {
+                emitLine(stderr, true);
+            }
+        }
+
+        private void emitLine(ByteArrayOutputStream buffer, boolean isStderr) {
+            String line = new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+            buffer.reset();
+            if (line.endsWith("\r")) {
+                line = line.substring(0, line.length() - 1);
+            }
+            onLine(line, isStderr);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package org.firebirdsql.testcontainers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Execution details of a statement, parsed from an {@code EXECUTE_STATEMENT_FINISH} trace event.
+ * <p>
+ * The plan and the performance counters are only available if the trace configuration enables {@code print_plan} and
+ * {@code print_perf} (as {@link TraceSession#DEFAULT_CONFIGURATION} does). The SQL text is truncated by the server to
+ * {@code max_sql_length} characters.
+ * </p>
+ */
+public final class TraceStatement {
+
+    private static final String STATEMENT_FINISH_EVENT = "EXECUTE_STATEMENT_FINISH";
+    private static final Pattern STATEMENT_PATTERN = Pattern.compile("^Statement (\\d+):$");
+    private static final Pattern SEPARATOR_PATTERN = Pattern.compile("^-+$");
+    private static final Pattern PLAN_SEPARATOR_PATTERN = Pattern.compile("^\\^+$");
+    private static final Pattern PARAMETER_PATTERN = Pattern.compile("^param\\d+ = .*");
+    private static final Pattern RECORDS_FETCHED_PATTERN = Pattern.compile("^(\\d+) records fetched$");
+    private static final Pattern PERFORMANCE_PATTERN = Pattern.compile("^\\s*(\\d+) ms(?:,.*)?$");
+    private static final Pattern READS_PATTERN = Pattern.compile("(\\d+) read\\(s\\)");
+    private static final Pattern WRITES_PATTERN = Pattern.compile("(\\d+) write\\(s\\)");
+    private static final Pattern FETCHES_PATTERN = Pattern.compile("(\\d+) fetch\\(es\\)");
+    private static final Pattern MARKS_PATTERN = Pattern.compile("(\\d+) mark\\(s\\)");
+
+    private final TraceEvent event;
+    private final long statementId;
+    private final String sql;
+    private final String plan;
+    private final long recordsFetched;
+    private final Duration elapsed;
+    private final long reads;
+    private final long writes;
+    private final long fetches;
+    private final long marks;
+
+    private TraceStatement(TraceEvent event, long statementId, String sql, String plan, long recordsFetched,
+            Duration elapsed, String performanceLine) {
+        this.event = event;
+        this.statementId = statementId;
+        this.sql = sql;
+        this.plan = plan;
+        this.recordsFetched = recordsFetched;
+        this.elapsed = elapsed;
+        reads = extractCounter(READS_PATTERN, performanceLine);
+        writes = extractCounter(WRITES_PATTERN, performanceLine);
+        fetches = extractCounter(FETCHES_PATTERN, performanceLine);
+        marks = extractCounter(MARKS_PATTERN, performanceLine);
+    }
+
+    /**
+     * @param event
+     *         Trace event
+     * @return statement details, or empty if {@code event} is not an {@code EXECUTE_STATEMENT_FINISH} event
+     */
+    static Optional<TraceStatement> parse(TraceEvent event) {
+        if (!event.getEventType().endsWith(STATEMENT_FINISH_EVENT)) {
+            return Optional.empty();
+        }
+        List<String> lines = event.getLines();
+        int index = 1;
+        Matcher statementMatcher = null;
+        while (index < lines.size()) {
+            statementMatcher = STATEMENT_PATTERN.matcher(lines.get(index++));
+            if (statementMatcher.matches()) {
+                break;
+            }
+            statementMatcher = null;
+        }
+        if (statementMatcher == null) {
+            return Optional.empty();
+        }
+        long statementId = Long.parseLong(statementMatcher.group(1));
+
+        StringBuilder sql = new StringBuilder();
+        if (index < lines.size() && SEPARATOR_PATTERN.matcher(lines.get(index)).matches()) {
+            index++;
+            while (index < lines.size() && !isEndOfSql(lines.get(index))) {
+                sql.append(lines.get(index++)).append('\n');
+            }
+        }
+
+        StringBuilder plan = null;
+        if (index < lines.size() && PLAN_SEPARATOR_PATTERN.matcher(lines.get(index)).matches()) {
+            index++;
+            plan = new StringBuilder();
+            while (index < lines.size() && !lines.get(index).trim().isEmpty() && !isEndOfSql(lines.get(index))) {
+                plan.append(lines.get(index++)).append('\n');
+            }
+        }
+
+        long recordsFetched = 0;
+        Duration elapsed = Duration.ZERO;
+        String performanceLine = "";
+        for (; index < lines.size(); index++) {
+            String line = lines.get(index);
+            Matcher matcher = RECORDS_FETCHED_PATTERN.matcher(line);
+            if (matcher.matches()) {
+                recordsFetched = Long.parseLong(matcher.group(1));
+                continue;
+            }
+            matcher = PERFORMANCE_PATTERN.matcher(line);
+            if (matcher.matches()) {
+                elapsed = Duration.ofMillis(Long.parseLong(matcher.group(1)));
+                performanceLine = line;
+                break;
+            }
+        }
+        return Optional.of(new TraceStatement(event, statementId, sql.toString().trim(),
+                plan != null ? plan.toString().trim() : null, recordsFetched, elapsed, performanceLine));
+    }
+
+    private static boolean isEndOfSql(String line) {
+        return PLAN_SEPARATOR_PATTERN.matcher(line).matches()
+                || PARAMETER_PATTERN.matcher(line).matches()
+                || RECORDS_FETCHED_PATTERN.matcher(line).matches()
+                || PERFORMANCE_PATTERN.matcher(line).matches();
+    }
+
+    private static long extractCounter(Pattern pattern, String performanceLine) {
+        Matcher matcher = pattern.matcher(performanceLine);
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : 0;
+    }
+
+    /**
+     * @return trace event of this statement
+     */
+    public TraceEvent getEvent() {
+        return event;
+    }
+
+    /**
+     * @return {@code true} if the execution failed
+     */
+    public boolean isFailed() {
+        return event.getEventType().startsWith("FAILED");
+    }
+
+    /**
+     * @return id of the statement within the attachment
+     */
+    public long getStatementId() {
+        return statementId;
+    }
+
+    /**
+     * @return SQL text of the statement (possibly truncated)
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return plan of the statement, or empty if the plan was not logged
+     */
+    public Optional<String> getPlan() {
+        return Optional.ofNullable(plan);
+    }
+
+    /**
+     * @return number of records fetched
+     */
+    public long getRecordsFetched() {
+        return recordsFetched;
+    }
+
+    /**
+     * @return execution time of the statement (millisecond precision)
+     */
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * @return number of pages read from disk
+     */
+    public long getReads() {
+        return reads;
+    }
+
+    /**
+     * @return number of pages written to disk
+     */
+    public long getWrites() {
+        return writes;
+    }
+
+    /**
+     * @return number of pages fetched from the page cache
+     */
+    public long getFetches() {
+        return fetches;
+    }
+
+    /**
+     * @return number of pages marked as modified
+     */
+    public long getMarks() {
+        return marks;
+    }
+
+    @Override
+    public String toString() {
+        return "TraceStatement{"
+                + "statementId=" + statementId
+                + ", sql='" + sql + '\''
+                + ", plan=" + (plan != null ? "'" + plan + "'" : "null")
+                + ", recordsFetched=" + recordsFetched
+                + ", elapsed=" + elapsed.toMillis() + "ms"
+                + ", reads=" + reads
+                + ", writes=" + writes
+                + ", fetches=" + fetches
+                + ", marks=" + marks
+                + '}';
+    }
+}
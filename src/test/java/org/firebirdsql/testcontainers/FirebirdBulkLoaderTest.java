@@ -0,0 +1,44 @@
+package org.firebirdsql.testcontainers;
+
+import org.firebirdsql.testcontainers.FirebirdBulkLoader.CsvRowIterator;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the CSV parsing of {@link FirebirdBulkLoader}, without a container.
+ */
+class FirebirdBulkLoaderTest {
+
+    @Test
+    void testCsvRowIterator_skipsBlankLines() {
+        List<Object[]> rows = readRows("1,one\r\n\r\n2,two\n\n", true);
+
+        assertEquals(2, rows.size(), "Expected blank lines skipped");
+        assertArrayEquals(new Object[] { "1", "one" }, rows.get(0));
+        assertArrayEquals(new Object[] { "2", "two" }, rows.get(1));
+    }
+
+    @Test
+    void testCsvRowIterator_blankLineIsNullRowForSingleColumn() {
+        List<Object[]> rows = readRows("one\r\n\r\ntwo\n\nthree\n", false);
+
+        assertEquals(5, rows.size(), "Expected blank lines as rows");
+        assertArrayEquals(new Object[] { "one" }, rows.get(0));
+        assertArrayEquals(new Object[] { null }, rows.get(1));
+        assertArrayEquals(new Object[] { "two" }, rows.get(2));
+        assertArrayEquals(new Object[] { null }, rows.get(3));
+        assertArrayEquals(new Object[] { "three" }, rows.get(4));
+    }
+
+    private static List<Object[]> readRows(String csv, boolean skipBlankLines) {
+        List<Object[]> rows = new ArrayList<>();
+        new CsvRowIterator(new StringReader(csv), ',', skipBlankLines).forEachRemaining(rows::add);
+        return rows;
+    }
+}
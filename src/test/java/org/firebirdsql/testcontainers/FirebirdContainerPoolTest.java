@@ -0,0 +1,174 @@
+package org.firebirdsql.testcontainers;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.JdbcDatabaseContainer;
+import org.testcontainers.jdbc.ConnectionUrl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.firebirdsql.testcontainers.FirebirdTestImages.FIREBIRD_TEST_IMAGE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link FirebirdContainerPool}, with containers which are not actually started.
+ */
+class FirebirdContainerPoolTest {
+
+    private static final ConnectionUrl URL = ConnectionUrl.newInstance("jdbc:tc:firebird:5.0.3:///test");
+    private static final ConnectionUrl OTHER_URL = ConnectionUrl.newInstance("jdbc:tc:firebird:5.0.3:///other");
+
+    private final List<Runnable> backgroundTasks = new ArrayList<>();
+    private final List<FakeContainer> createdContainers = new ArrayList<>();
+    private final Function<ConnectionUrl, JdbcDatabaseContainer<?>> containerFactory = url -> {
+        FakeContainer container = new FakeContainer();
+        createdContainers.add(container);
+        return container;
+    };
+
+    @AfterEach
+    void clearProperties() {
+        System.clearProperty(FirebirdContainerPool.POOL_SIZE_PROPERTY);
+        System.clearProperty(FirebirdContainerPool.IDLE_TIMEOUT_PROPERTY);
+    }
+
+    @Test
+    void testTake_firstRequestGetsNewContainerAndStartsOneReplacement() {
+        FirebirdContainerPool pool = new FirebirdContainerPool(backgroundTasks::add, Duration.ofMinutes(1));
+
+        FakeContainer container = (FakeContainer) pool.take(URL, 3, containerFactory);
+
+        assertFalse(container.started, "Expected new container, started by the caller");
+        assertEquals(1, backgroundTasks.size(), "Expected one container started in the background");
+        runBackgroundTasks();
+        assertTrue(createdContainers.get(1).started, "Expected replacement to be started");
+        assertEquals(1, pool.getAvailableCount(URL));
+    }
+
+    @Test
+    void testTake_poolHit() {
+        FirebirdContainerPool pool = new FirebirdContainerPool(backgroundTasks::add, Duration.ofMinutes(1));
+        pool.take(URL, 1, containerFactory);
+        runBackgroundTasks();
+        FakeContainer prestarted = createdContainers.get(1);
+
+        JdbcDatabaseContainer<?> container = pool.take(URL, 1, containerFactory);
+
+        assertSame(prestarted, container, "Expected pre-started container from the pool");
+        runBackgroundTasks();
+        assertEquals(3, createdContainers.size(), "Expected a replacement for the taken container");
+        assertEquals(1, pool.getAvailableCount(URL));
+    }
+
+    @Test
+    void testTake_replenishesUpToPoolSize() {
+        FirebirdContainerPool pool = new FirebirdContainerPool(backgroundTasks::add, Duration.ofMinutes(1));
+        pool.take(URL, 2, containerFactory);
+        pool.take(URL, 2, containerFactory);
+        pool.take(URL, 2, containerFactory);
+        assertEquals(2, backgroundTasks.size(), "Expected no more than pool size started in the background");
+
+        runBackgroundTasks();
+
+        assertEquals(2, pool.getAvailableCount(URL));
+        assertEquals(0, pool.getAvailableCount(OTHER_URL), "Expected other URL not pre-started");
+    }
+
+    @Test
+    void testTake_otherUrlDoesNotGetPooledContainer() {
+        FirebirdContainerPool pool = new FirebirdContainerPool(backgroundTasks::add, Duration.ofMinutes(1));
+        pool.take(URL, 1, containerFactory);
+        runBackgroundTasks();
+        FakeContainer prestarted = createdContainers.get(1);
+
+        JdbcDatabaseContainer<?> container = pool.take(OTHER_URL, 1, containerFactory);
+
+        assertNotSame(prestarted, container, "Expected new container for other URL");
+        assertEquals(1, pool.getAvailableCount(URL));
+    }
+
+    @Test
+    void testStopIdleContainers() {
+        FirebirdContainerPool pool = new FirebirdContainerPool(backgroundTasks::add, Duration.ZERO);
+        pool.take(URL, 1, containerFactory);
+        runBackgroundTasks();
+        FakeContainer prestarted = createdContainers.get(1);
+
+        pool.stopIdleContainers();
+
+        assertTrue(prestarted.stopped, "Expected idle container to be stopped");
+        assertEquals(0, pool.getAvailableCount(URL));
+    }
+
+    @Test
+    void testStopIdleContainers_keepsContainersWithinIdleTimeout() {
+        FirebirdContainerPool pool = new FirebirdContainerPool(backgroundTasks::add, Duration.ofMinutes(1));
+        pool.take(URL, 1, containerFactory);
+        runBackgroundTasks();
+
+        pool.stopIdleContainers();
+
+        assertFalse(createdContainers.get(1).stopped, "Expected container within idle timeout to be kept");
+        assertEquals(1, pool.getAvailableCount(URL));
+    }
+
+    @Test
+    void testGetConfiguredPoolSize() {
+        assertEquals(0, FirebirdContainerPool.getConfiguredPoolSize(), "Expected disabled by default");
+        System.setProperty(FirebirdContainerPool.POOL_SIZE_PROPERTY, "2");
+        assertEquals(2, FirebirdContainerPool.getConfiguredPoolSize());
+        System.setProperty(FirebirdContainerPool.POOL_SIZE_PROPERTY, "-1");
+        assertEquals(0, FirebirdContainerPool.getConfiguredPoolSize(), "Expected negative value to disable the pool");
+        System.setProperty(FirebirdContainerPool.POOL_SIZE_PROPERTY, "invalid");
+        assertEquals(0, FirebirdContainerPool.getConfiguredPoolSize(), "Expected invalid value to disable the pool");
+    }
+
+    @Test
+    void testGetConfiguredIdleTimeout() {
+        assertEquals(Duration.ofSeconds(FirebirdContainerPool.DEFAULT_IDLE_TIMEOUT_SECONDS),
+                FirebirdContainerPool.getConfiguredIdleTimeout());
+        System.setProperty(FirebirdContainerPool.IDLE_TIMEOUT_PROPERTY, "5");
+        assertEquals(Duration.ofSeconds(5), FirebirdContainerPool.getConfiguredIdleTimeout());
+        System.setProperty(FirebirdContainerPool.IDLE_TIMEOUT_PROPERTY, "0");
+        assertEquals(Duration.ZERO, FirebirdContainerPool.getConfiguredIdleTimeout());
+        System.setProperty(FirebirdContainerPool.IDLE_TIMEOUT_PROPERTY, "invalid");
+        assertEquals(Duration.ofSeconds(FirebirdContainerPool.DEFAULT_IDLE_TIMEOUT_SECONDS),
+                FirebirdContainerPool.getConfiguredIdleTimeout());
+    }
+
+    private void runBackgroundTasks() {
+        List<Runnable> tasks = new ArrayList<>(backgroundTasks);
+        backgroundTasks.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    /**
+     * Container which records start and stop instead of running a Docker container.
+     */
+    private static final class FakeContainer extends FirebirdContainer {
+
+        private boolean started;
+        private boolean stopped;
+
+        FakeContainer() {
+            super(FIREBIRD_TEST_IMAGE);
+        }
+
+        @Override
+        public void start() {
+            started = true;
+        }
+
+        @Override
+        public void stop() {
+            stopped = true;
+        }
+    }
+}
@@ -4,14 +4,36 @@ import org.firebirdsql.gds.impl.GDSServerVersion;
 import org.firebirdsql.jdbc.FirebirdConnection;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.Container;
+import org.testcontainers.containers.ContainerLaunchException;
 import org.testcontainers.utility.DockerImageName;
+import org.testcontainers.utility.TestcontainersConfiguration;
 
+import javax.sql.DataSource;
+import java.io.StringReader;
+import java.nio.file.Path;
 import java.sql.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.firebirdsql.testcontainers.FirebirdContainer.FIREBIRD_PORT;
+import static org.firebirdsql.testcontainers.FirebirdContainer.PROJECT_IMAGE_NAME;
 import static org.firebirdsql.testcontainers.FirebirdTestImages.JACOB_ALBERTY_259_SC_IMAGE;
 import static org.firebirdsql.testcontainers.FirebirdTestImages.JACOB_ALBERTY_259_SS_IMAGE;
 import static org.firebirdsql.testcontainers.FirebirdTestImages.FIREBIRD_TEST_IMAGE;
@@ -22,7 +44,13 @@ import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 class FirebirdContainerTest {
 
@@ -124,6 +152,45 @@ class FirebirdContainerTest {
         }
     }
 
+    @Test
+    void testWireCryptPlugins() throws SQLException {
+        List<String> plugins = FirebirdContainer.getSupportedWireCryptPlugins();
+        assertSame(plugins, FirebirdContainer.getSupportedWireCryptPlugins(), "Expected detection once per JVM");
+        try (FirebirdContainer container = new FirebirdContainer(PROJECT_TEST_IMAGE)) {
+            container.start();
+
+            assertNull(container.getEnvMap().get("FIREBIRD_CONF_WireCryptPlugin"),
+                    "Expected plugins of the server not changed by default");
+            if (plugins.isEmpty()) {
+                return;
+            }
+            assertNull(container.getEnvMap().get("FIREBIRD_CONF_WireCrypt"), "Expected WireCrypt not relaxed");
+            // The plugin is negotiated by Jaybird and the server, so only check it is one supported by the JVM
+            assertTrue(plugins.contains(getWireCryptPlugin(container)), "Expected plugin supported by the JVM");
+        }
+    }
+
+    @Test
+    void testWireCryptPlugins_configuredPlugin() throws SQLException {
+        assumeTrue(FirebirdContainer.isWireEncryptionSupported(), "Requires ARC4 support");
+        try (FirebirdContainer container = new FirebirdContainer(PROJECT_TEST_IMAGE)
+                .withConfigurationOption("WireCryptPlugin", "Arc4")) {
+            container.start();
+
+            assertEquals("Arc4", getWireCryptPlugin(container));
+        }
+    }
+
+    private static String getWireCryptPlugin(FirebirdContainer container) throws SQLException {
+        try (Connection connection = container.createConnection("");
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select trim(mon$wire_crypt_plugin) from mon$attachments "
+                     + "where mon$attachment_id = current_connection")) {
+            assertTrue(rs.next(), "Expected a row");
+            return rs.getString(1);
+        }
+    }
+
     /**
      * The 2.5 images of jacobalberty/firebird handle FIREBIRD_DATABASE and need an absolute path to access the database.
      * <p>
@@ -216,6 +283,713 @@ class FirebirdContainerTest {
         }
     }
 
+    @ParameterizedTest
+    @MethodSource("defaultTestImages")
+    void testTakeAndRestoreSnapshot(DockerImageName imageName) throws SQLException {
+        try (FirebirdContainer container = new FirebirdContainer(imageName)) {
+            container.start();
+
+            try (Connection connection = container.createConnection("");
+                 Statement statement = connection.createStatement()) {
+                statement.execute("create table snapshot_test (id integer)");
+                statement.execute("insert into snapshot_test (id) values (1)");
+            }
+            container.takeSnapshot("seeded");
+
+            try (Connection connection = container.createConnection("");
+                 Statement statement = connection.createStatement()) {
+                statement.execute("insert into snapshot_test (id) values (2)");
+                assertEquals(2, countRows(statement, "snapshot_test"), "Expected row count before restore");
+            }
+            container.restoreSnapshot("seeded");
+
+            try (Connection connection = container.createConnection("");
+                 Statement statement = connection.createStatement()) {
+                assertEquals(1, countRows(statement, "snapshot_test"), "Expected row count after restore");
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("defaultTestImages")
+    void testCloneDatabase(DockerImageName imageName) throws SQLException {
+        try (FirebirdContainer container = new FirebirdContainer(imageName)) {
+            container.start();
+
+            try (Connection connection = container.createConnection("");
+                 Statement statement = connection.createStatement()) {
+                statement.execute("create table clone_test (id integer)");
+                statement.execute("insert into clone_test (id) values (1)");
+            }
+            String clone1 = container.cloneDatabase();
+            String clone2 = container.cloneDatabase();
+            assertNotEquals(clone1, clone2, "Expected unique clone names");
+
+            try (Connection connection = DriverManager.getConnection(
+                    container.getJdbcUrl(clone1), container.getUsername(), container.getPassword());
+                 Statement statement = connection.createStatement()) {
+                statement.execute("insert into clone_test (id) values (2)");
+                assertEquals(2, countRows(statement, "clone_test"), "Expected row count in modified clone");
+            }
+            try (Connection connection = DriverManager.getConnection(
+                    container.getJdbcUrl(clone2), container.getUsername(), container.getPassword());
+                 Statement statement = connection.createStatement()) {
+                assertEquals(1, countRows(statement, "clone_test"), "Expected row count in unmodified clone");
+            }
+
+            container.deleteClonedDatabase(clone1);
+            assertThrows(SQLException.class, () -> DriverManager.getConnection(
+                    container.getJdbcUrl(clone1), container.getUsername(), container.getPassword()).close());
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("defaultTestImages")
+    void testWithInMemoryStorage(DockerImageName imageName) throws Exception {
+        try (FirebirdContainer container = new FirebirdContainer(imageName).withInMemoryStorage("256m")) {
+            container.start();
+
+            Container.ExecResult mounts = container.execInContainer("cat", "/proc/mounts");
+            assertThat(mounts.getStdout(), containsString("tmpfs"));
+
+            try (Connection connection = container.createConnection("");
+                 Statement statement = connection.createStatement()) {
+                statement.execute("create table in_memory_test (id integer)");
+                statement.execute("insert into in_memory_test (id) values (1)");
+                assertEquals(1, countRows(statement, "in_memory_test"), "Expected row count");
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("projectCompatibleImages")
+    void testWithConfigurationOptions(DockerImageName imageName) throws SQLException {
+        try (FirebirdContainer container = new FirebirdContainer(imageName)
+                .withServerMode(ServerMode.SUPER)
+                .withDefaultDbCachePages(4096)) {
+            container.start();
+
+            assertEquals("Super", container.getEnvMap().get("FIREBIRD_CONF_ServerMode"));
+            try (Connection connection = container.createConnection("");
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("select MON$PAGE_BUFFERS from MON$DATABASE")) {
+                assertTrue(rs.next(), "Expected a row");
+                assertEquals(4096, rs.getInt(1), "Expected configured page buffers");
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("projectCompatibleImages")
+    void testWithPerformanceProfile(DockerImageName imageName) throws SQLException {
+        final long memoryBytes = 512L * 1024 * 1024;
+        try (FirebirdContainer container = new FirebirdContainer(imageName)
+                .withPerformanceProfile(2, memoryBytes)) {
+            container.start();
+
+            assertEquals(memoryBytes, container.getContainerInfo().getHostConfig().getMemory(), "memory limit");
+            assertEquals("2", container.getEnvMap().get("FIREBIRD_CONF_MaxParallelWorkers"), "MaxParallelWorkers");
+            try (Connection connection = container.createConnection("");
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("select MON$PAGE_BUFFERS from MON$DATABASE")) {
+                assertTrue(rs.next(), "Expected a row");
+                assertEquals(memoryBytes / 4 / 8192, rs.getInt(1), "Expected page buffers scaled to memory");
+            }
+        }
+    }
+
+    @Test
+    void testWithPerformanceProfile_changedBeforeRestart() {
+        try (FirebirdContainer container = new FirebirdContainer(FIREBIRD_TEST_IMAGE)
+                .withPerformanceProfile(2, 512L * 1024 * 1024)) {
+            container.start();
+            container.stop();
+
+            final long memoryBytes = 256L * 1024 * 1024;
+            container.withPerformanceProfile(1, memoryBytes);
+            container.start();
+
+            assertEquals(memoryBytes, container.getContainerInfo().getHostConfig().getMemory(), "memory limit");
+            assertEquals("1", container.getEnvMap().get("FIREBIRD_CONF_MaxParallelWorkers"), "MaxParallelWorkers");
+            assertEquals(String.valueOf(memoryBytes / 4 / 8192),
+                    container.getEnvMap().get("FIREBIRD_CONF_DefaultDbCachePages"), "DefaultDbCachePages");
+        }
+    }
+
+    @Test
+    void testWithConfigurationOptions_notSupportedForJacobAlbertyImage() {
+        try (FirebirdContainer container = new FirebirdContainer(JACOB_ALBERTY_TEST_IMAGE)
+                .withDefaultDbCachePages(4096)) {
+            assertThrows(ContainerLaunchException.class, container::start);
+        }
+    }
+
+    @Test
+    void testGetFirebirdVersion() {
+        try (FirebirdContainer container = new FirebirdContainer(JACOB_ALBERTY_259_SC_IMAGE)) {
+            FirebirdVersion version = container.getFirebirdVersion();
+            assertEquals(2, version.getMajor());
+            assertEquals(5, version.getMinor());
+            assertEquals(ServerMode.SUPER_CLASSIC, version.getServerMode().orElse(null));
+            assertFalse(version.isAtLeast(3), "2.5 is not at least 3.0");
+        }
+        try (FirebirdContainer container = new FirebirdContainer(PROJECT_TEST_IMAGE)) {
+            FirebirdVersion version = container.getFirebirdVersion();
+            assertEquals(5, version.getMajor());
+            assertEquals(0, version.getMinor());
+            assertFalse(version.getServerMode().isPresent(), "Expected no server mode");
+            assertTrue(version.isAtLeast(4, 0), "5.0 is at least 4.0");
+        }
+        try (FirebirdContainer container = new FirebirdContainer(PROJECT_IMAGE_NAME.withTag("latest"))) {
+            FirebirdVersion version = container.getFirebirdVersion();
+            assertFalse(version.isKnown(), "Expected unknown version for latest");
+            assertTrue(version.isAtLeast(5), "Unknown version is assumed to be recent");
+        }
+    }
+
+    @Test
+    void testWithParallelWorkers_requiresFirebird5() {
+        try (FirebirdContainer container = new FirebirdContainer(PROJECT_IMAGE_NAME.withTag("4.0.6"))
+                .withParallelWorkers(2)) {
+            assertThrows(ContainerLaunchException.class, container::start);
+        }
+    }
+
+    @Test
+    void testStartupTimings() {
+        AtomicReference<StartupTimings> listenerTimings = new AtomicReference<>();
+        try (FirebirdContainer container = new FirebirdContainer(FIREBIRD_TEST_IMAGE)
+                .withStartupListener(listenerTimings::set)) {
+            assertFalse(container.getStartupTimings().isPresent(), "Expected no timings before start");
+
+            container.start();
+
+            StartupTimings timings = container.getStartupTimings()
+                    .orElseThrow(() -> new AssertionError("Expected timings after start"));
+            assertSame(timings, listenerTimings.get(), "Expected listener to receive timings");
+            for (StartupTimings.Phase phase : StartupTimings.Phase.values()) {
+                if (phase == StartupTimings.Phase.DATABASE_RESTORE
+                        || phase == StartupTimings.Phase.DATABASE_PROVISIONING) {
+                    assertFalse(timings.getDuration(phase).isPresent(), "Expected no duration for " + phase);
+                } else {
+                    assertTrue(timings.getDuration(phase).isPresent(), "Expected duration for " + phase);
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("projectCompatibleImages")
+    void testWithRestoreFrom(DockerImageName imageName, @TempDir Path tempDir) throws Exception {
+        Path backupFile = tempDir.resolve("restore_test.fbk");
+        try (FirebirdContainer container = new FirebirdContainer(imageName)) {
+            container.start();
+            try (Connection connection = container.createConnection("");
+                 Statement statement = connection.createStatement()) {
+                statement.execute("create table restore_test (id integer)");
+                statement.execute("insert into restore_test (id) values (1)");
+            }
+            Container.ExecResult result = container.execInContainer("/opt/firebird/bin/gbak", "-b",
+                    "-user", container.getUsername(), "-password", container.getPassword(),
+                    "localhost:" + container.getDatabaseName(), "/tmp/restore_test.fbk");
+            assertEquals(0, result.getExitCode(), () -> "Expected backup to succeed: " + result.getStderr());
+            container.copyFileFromContainer("/tmp/restore_test.fbk", backupFile.toString());
+        }
+
+        try (FirebirdContainer container = new FirebirdContainer(imageName)
+                .withDatabaseName("restored")
+                .withRestoreFrom(backupFile)) {
+            container.start();
+            try (Connection connection = container.createConnection("");
+                 Statement statement = connection.createStatement()) {
+                assertEquals(1, countRows(statement, "restore_test"), "Expected row count in restored database");
+            }
+            assertTrue(container.getStartupTimings()
+                    .flatMap(timings -> timings.getDuration(StartupTimings.Phase.DATABASE_RESTORE))
+                    .isPresent(), "Expected duration for restore");
+        }
+    }
+
+    @Test
+    void testWithImageCache() throws SQLException {
+        // Unique database name, so the first start always creates a new cached image
+        String databaseName = "cache_" + UUID.randomUUID().toString().replace("-", "");
+        String cachedImageName = null;
+        String inMemoryCachedImageName = null;
+        try {
+            try (FirebirdContainer container = new FirebirdContainer(FIREBIRD_TEST_IMAGE)
+                    .withDatabaseName(databaseName)
+                    .withInitScript("image_cache_init.sql")
+                    .withImageCache()) {
+                container.start();
+                assertEquals(FIREBIRD_TEST_IMAGE.asCanonicalNameString(), container.getDockerImageName(),
+                        "Expected original image on first start");
+            }
+
+            try (FirebirdContainer container = new FirebirdContainer(FIREBIRD_TEST_IMAGE)
+                    .withDatabaseName(databaseName)
+                    .withInitScript("image_cache_init.sql")
+                    .withImageCache()) {
+                container.start();
+                cachedImageName = container.getDockerImageName();
+                assertThat("Expected cached image", cachedImageName, containsString("firebird-testcontainers-cache:"));
+                try (Connection connection = container.createConnection("");
+                     Statement statement = connection.createStatement()) {
+                    // The init script was not executed again
+                    assertEquals(1, countRows(statement, "image_cache_test"), "Expected row count");
+                }
+            }
+            Map<String, String> labels = DockerClientFactory.lazyClient().inspectImageCmd(cachedImageName).exec()
+                    .getConfig().getLabels();
+            assertEquals("", labels.get(DockerClientFactory.TESTCONTAINERS_SESSION_ID_LABEL),
+                    "Expected session id of the container cleared in the cached image");
+
+            try (FirebirdContainer container = new FirebirdContainer(FIREBIRD_TEST_IMAGE)
+                    .withDatabaseName(databaseName)
+                    .withInitScript("image_cache_init.sql")
+                    .withInMemoryStorage()
+                    .withImageCache()) {
+                container.start();
+                inMemoryCachedImageName = container.getImageCacheName();
+                assertNotEquals(cachedImageName, inMemoryCachedImageName,
+                        "Expected other cached image for in-memory storage");
+                assertEquals(FIREBIRD_TEST_IMAGE.asCanonicalNameString(), container.getDockerImageName(),
+                        "Expected other storage to not use the cached image");
+            }
+        } finally {
+            for (String imageName : Arrays.asList(cachedImageName, inMemoryCachedImageName)) {
+                if (imageName != null) {
+                    DockerClientFactory.lazyClient().removeImageCmd(imageName).withForce(true).exec();
+                }
+            }
+        }
+    }
+
+    @Test
+    void testWithReuse_resetsDatabase() throws SQLException {
+        assumeTrue(TestcontainersConfiguration.getInstance().environmentSupportsReuse(),
+                "Requires testcontainers.reuse.enable=true");
+        // Unique database name, so the first start never reuses a container of an earlier run
+        String databaseName = "reuse_" + UUID.randomUUID().toString().replace("-", "");
+        FirebirdContainer first = new FirebirdContainer(FIREBIRD_TEST_IMAGE)
+                .withDatabaseName(databaseName)
+                .withInitScript("firebird_init.sql")
+                .withInitScriptMode(InitScriptMode.FIREBIRD)
+                .withReuse(true);
+        FirebirdContainer second = new FirebirdContainer(FIREBIRD_TEST_IMAGE)
+                .withDatabaseName(databaseName)
+                .withInitScript("firebird_init.sql")
+                .withInitScriptMode(InitScriptMode.FIREBIRD)
+                .withReuse(true);
+        try {
+            first.start();
+            try (Connection connection = first.createConnection("");
+                 Statement statement = connection.createStatement()) {
+                statement.execute("insert into init_test (id, name) values (5, 'five')");
+                assertEquals(5, countRows(statement, "init_test"), "Expected row count after insert");
+            }
+
+            // Not stopped, so the second container reuses it
+            second.start();
+            assertEquals(first.getContainerId(), second.getContainerId(), "Expected reused container");
+            try (Connection connection = second.createConnection("");
+                 Statement statement = connection.createStatement()) {
+                assertEquals(4, countRows(statement, "init_test"), "Expected database reset to initialized state");
+            }
+            assertTrue(second.getInitScriptTimings().isEmpty(), "Expected init script not executed again");
+        } finally {
+            second.stop();
+            first.stop();
+        }
+    }
+
+    @Test
+    void testGetDataSource() throws SQLException {
+        DataSource dataSource;
+        try (FirebirdContainer container = new FirebirdContainer(FIREBIRD_TEST_IMAGE)
+                .withDataSourcePoolSize(2)) {
+            container.start();
+            dataSource = container.getDataSource();
+            assertSame(dataSource, container.getDataSource(), "Expected same data source");
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                assertEquals(1, countRows(statement, "RDB$DATABASE"), "Expected query to work");
+            }
+        }
+        assertThrows(SQLException.class, dataSource::getConnection, "Expected data source to be closed on stop");
+    }
+
+    @Test
+    void testPooledDataSource() throws SQLException {
+        try (FirebirdContainer container = new FirebirdContainer(FIREBIRD_TEST_IMAGE)) {
+            container.start();
+            try (Connection connection = container.createConnection("");
+                 Statement statement = connection.createStatement()) {
+                statement.execute("create table pool_test (id integer)");
+            }
+            try (PooledDataSource dataSource = new PooledDataSource(() -> container.createConnection(""), 1)) {
+                Connection physicalConnection;
+                try (Connection connection = dataSource.getConnection();
+                     Statement statement = connection.createStatement()) {
+                    physicalConnection = connection.unwrap(FirebirdConnection.class);
+                    connection.setAutoCommit(false);
+                    statement.execute("insert into pool_test (id) values (1)");
+                }
+                try (Connection connection = dataSource.getConnection();
+                     Statement statement = connection.createStatement()) {
+                    assertSame(physicalConnection, connection.unwrap(FirebirdConnection.class),
+                            "Expected pooled physical connection");
+                    assertTrue(connection.getAutoCommit(), "Expected auto-commit to be reset");
+                    assertEquals(0, countRows(statement, "pool_test"), "Expected uncommitted insert rolled back");
+                }
+            }
+        }
+    }
+
+    @Test
+    void testPooledDataSource_wrapsStatementsAndClosesThemOnRelease() throws SQLException {
+        try (FirebirdContainer container = new FirebirdContainer(FIREBIRD_TEST_IMAGE)) {
+            container.start();
+            try (PooledDataSource dataSource = new PooledDataSource(() -> container.createConnection(""), 1)) {
+                Statement leftOpenStatement;
+                ResultSet leftOpenResultSet;
+                Connection physicalConnection;
+                try (Connection connection = dataSource.getConnection()) {
+                    physicalConnection = connection.unwrap(FirebirdConnection.class);
+                    leftOpenStatement = connection.createStatement();
+                    assertSame(connection, leftOpenStatement.getConnection(), "Expected pooled connection");
+                    assertSame(connection, connection.getMetaData().getConnection(), "Expected pooled connection");
+                    PreparedStatement preparedStatement = connection.prepareStatement("select 1 from rdb$database");
+                    leftOpenResultSet = preparedStatement.executeQuery();
+                    assertSame(preparedStatement, leftOpenResultSet.getStatement(), "Expected wrapped statement");
+                }
+                assertTrue(leftOpenStatement.isClosed(), "Expected statement closed on release");
+                assertTrue(leftOpenResultSet.isClosed(), "Expected result set closed on release");
+
+                try (Connection connection = dataSource.getConnection()) {
+                    // Closes the pooled connection, not the physical connection
+                    connection.createStatement().getConnection().close();
+                    assertTrue(connection.isClosed(), "Expected pooled connection closed");
+                }
+                try (Connection connection = dataSource.getConnection();
+                     Statement statement = connection.createStatement()) {
+                    assertSame(physicalConnection, connection.unwrap(FirebirdConnection.class),
+                            "Expected pooled physical connection");
+                    assertEquals(1, countRows(statement, "RDB$DATABASE"), "Expected query to work");
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @FirebirdContainerSource({ "firebirdsql/firebird:5.0.3", "jacobalberty/firebird:v4.0.2" })
+    void testFirebirdContainerSource(FirebirdContainer container) throws SQLException {
+        assertTrue(container.isRunning(), "Expected started container");
+        try (Connection connection = container.createConnection("");
+             Statement statement = connection.createStatement()) {
+            assertEquals(1, countRows(statement, "RDB$DATABASE"), "Expected query to work");
+        }
+    }
+
+    @Test
+    void testStartAsync() throws Exception {
+        try (FirebirdContainer container = new FirebirdContainer(FIREBIRD_TEST_IMAGE)) {
+            CompletableFuture<FirebirdContainer> future = container.startAsync();
+
+            assertSame(container, future.get(5, TimeUnit.MINUTES), "Expected future to complete with container");
+            assertTrue(container.isRunning(), "Expected started container");
+        }
+    }
+
+    @Test
+    void testBulkLoader() throws Exception {
+        try (FirebirdContainer container = new FirebirdContainer(FIREBIRD_TEST_IMAGE)) {
+            container.start();
+            try (Connection connection = container.createConnection("");
+                 Statement statement = connection.createStatement()) {
+                statement.execute("create table bulk_test (id integer primary key, name varchar(50))");
+            }
+
+            FirebirdBulkLoader.LoadResult result = new FirebirdBulkLoader(container, "bulk_test", "id", "name")
+                    .withBatchSize(100)
+                    .withCommitInterval(1000)
+                    .load(IntStream.rangeClosed(1, 5000)
+                            .mapToObj(i -> new Object[] { i, "name " + i })
+                            .iterator());
+            assertEquals(5000, result.getRowCount(), "Expected loaded row count");
+
+            String csv = "id,name\r\n6001,\"quoted, \"\"name\"\"\"\r\n6002,\n";
+            result = new FirebirdBulkLoader(container, "bulk_test", "id", "name")
+                    .loadCsv(new StringReader(csv), true);
+            assertEquals(2, result.getRowCount(), "Expected loaded CSV row count");
+
+            try (Connection connection = container.createConnection("");
+                 Statement statement = connection.createStatement()) {
+                assertEquals(5002, countRows(statement, "bulk_test"), "Expected row count");
+                try (ResultSet rs = statement.executeQuery(
+                        "select name from bulk_test where id in (6001, 6002) order by id")) {
+                    assertTrue(rs.next(), "Expected a row");
+                    assertEquals("quoted, \"name\"", rs.getString(1));
+                    assertTrue(rs.next(), "Expected a row");
+                    assertNull(rs.getString(1), "Expected NULL for empty field");
+                }
+            }
+        }
+    }
+
+    @Test
+    void testBulkLoader_csvSingleColumnWithBlankLine() throws Exception {
+        try (FirebirdContainer container = new FirebirdContainer(FIREBIRD_TEST_IMAGE)) {
+            container.start();
+            try (Connection connection = container.createConnection("");
+                 Statement statement = connection.createStatement()) {
+                statement.execute("create table bulk_single (name varchar(50))");
+            }
+
+            FirebirdBulkLoader.LoadResult result = new FirebirdBulkLoader(container, "bulk_single", "name")
+                    .loadCsv(new StringReader("one\n\nthree\n"), false);
+
+            assertEquals(3, result.getRowCount(), "Expected blank line loaded as a row");
+            try (Connection connection = container.createConnection("");
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("select count(*) from bulk_single where name is null")) {
+                assertTrue(rs.next(), "Expected a row");
+                assertEquals(1, rs.getInt(1), "Expected NULL for blank line");
+            }
+        }
+    }
+
+    @Test
+    void testMeasureMonitoringStatistics() throws Exception {
+        try (FirebirdContainer container = new FirebirdContainer(FIREBIRD_TEST_IMAGE)) {
+            container.start();
+            try (Connection connection = container.createConnection("");
+                 Statement statement = connection.createStatement()) {
+                statement.execute("create table monitoring_test (id integer primary key, val integer)");
+                MonitoringStatistics statistics = container.measureMonitoringStatistics(() -> {
+                    for (int i = 1; i <= 100; i++) {
+                        statement.execute("insert into monitoring_test (id, val) values (" + i + ", " + i + ")");
+                    }
+                    assertEquals(100, countRows(statement, "monitoring_test"), "Expected row count");
+                });
+
+                assertTrue(statistics.getRecordInserts() >= 100, "Expected inserts, was: " + statistics);
+                assertTrue(statistics.getRecordSequentialReads() >= 100,
+                        "Expected a natural scan, was: " + statistics);
+                assertTrue(statistics.getPageFetches() > 0, "Expected page fetches, was: " + statistics);
+
+                statistics = container.measureMonitoringStatistics(() -> {
+                    try (ResultSet rs = statement.executeQuery("select val from monitoring_test where id = 50")) {
+                        assertTrue(rs.next(), "Expected a row");
+                    }
+                });
+                assertTrue(statistics.getRecordIndexedReads() >= 1, "Expected indexed reads, was: " + statistics);
+            }
+        }
+    }
+
+    @Test
+    void testCaptureMonitoringStatistics_keepsTransactionOfConnection() throws Exception {
+        try (FirebirdContainer container = new FirebirdContainer(FIREBIRD_TEST_IMAGE)) {
+            container.start();
+            try (Connection connection = container.createConnection("");
+                 Statement statement = connection.createStatement()) {
+                statement.execute("create table monitoring_tx_test (id integer primary key)");
+                connection.setAutoCommit(false);
+                statement.execute("insert into monitoring_tx_test (id) values (1)");
+
+                MonitoringStatistics before = MonitoringStatistics.capture(connection);
+                MonitoringStatistics after = MonitoringStatistics.capture(connection);
+                assertFalse(connection.getAutoCommit(), "Expected auto-commit unchanged");
+                assertEquals(after.getMaxMemoryUsed(), after.minus(before).getMaxMemoryUsed(),
+                        "Expected high-water mark of the later snapshot");
+
+                connection.rollback();
+                assertEquals(0, countRows(statement, "monitoring_tx_test"), "Expected insert rolled back");
+            }
+        }
+    }
+
+    @Test
+    void testTraceSession() throws Exception {
+        try (FirebirdContainer container = new FirebirdContainer(FIREBIRD_TEST_IMAGE)) {
+            container.start();
+            BlockingQueue<TraceStatement> statements = new LinkedBlockingQueue<>();
+            try (TraceSession traceSession = container.startTraceSession(
+                    event -> event.toStatement().ifPresent(statements::add));
+                 Connection connection = container.createConnection("");
+                 Statement statement = connection.createStatement()) {
+                assertTrue(traceSession.getSessionId() > 0, "Expected a session id");
+                // An event is only passed on when the next event starts, so keep executing statements
+                TraceStatement traced = null;
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+                while (traced == null && System.nanoTime() < deadline) {
+                    try (ResultSet rs = statement.executeQuery(
+                            "select RDB$RELATION_ID from RDB$RELATIONS where RDB$RELATION_NAME = 'RDB$DATABASE'")) {
+                        assertTrue(rs.next(), "Expected a row");
+                    }
+                    TraceStatement candidate = statements.poll(500, TimeUnit.MILLISECONDS);
+                    if (candidate != null && candidate.getSql().contains("RDB$RELATIONS")) {
+                        traced = candidate;
+                    }
+                }
+
+                assertNotNull(traced, "Expected traced statement");
+                assertEquals(1, traced.getRecordsFetched(), "Expected records fetched, was: " + traced);
+                assertTrue(traced.getPlan().orElse("").contains("INDEX"), "Expected plan with index, was: " + traced);
+            }
+        }
+    }
+
+    @Test
+    void testStatementProfile() throws Exception {
+        try (FirebirdContainer container = new FirebirdContainer(FIREBIRD_TEST_IMAGE)) {
+            container.start();
+            try (Connection connection = container.createConnection("");
+                 Statement statement = connection.createStatement()) {
+                statement.execute("create table profile_test (id integer primary key, name varchar(50))");
+                statement.execute("create index idx_profile_test_name on profile_test (name)");
+                statement.execute("insert into profile_test (id, name) "
+                        + "select RDB$RELATION_ID, RDB$RELATION_NAME from RDB$RELATIONS");
+
+                StatementProfile indexed = StatementProfile.profile(connection,
+                        "select id from profile_test where name = ?", "RDB$DATABASE");
+                indexed.assertUsesIndex("idx_profile_test_name")
+                        .assertNoNaturalScan()
+                        .assertRecordReadsBelow(10);
+                assertEquals(1, indexed.getRowCount(), "Expected row count");
+                assertTrue(indexed.getExplainedPlan().isPresent(), "Expected explained plan");
+
+                StatementProfile naturalScan = StatementProfile.profile(connection,
+                        "select id from profile_test where upper(name) = 'RDB$DATABASE'");
+                assertThrows(AssertionError.class, naturalScan::assertNoNaturalScan);
+                assertThrows(AssertionError.class, () -> naturalScan.assertUsesIndex("idx_profile_test_name"));
+                assertTrue(naturalScan.getStatistics().getRecordSequentialReads() > 1,
+                        "Expected sequential reads, was: " + naturalScan);
+                assertTrue(connection.getAutoCommit(), "Expected auto-commit restored");
+
+                connection.setAutoCommit(false);
+                assertThrows(IllegalStateException.class,
+                        () -> StatementProfile.profile(connection, "select id from profile_test"));
+            }
+        }
+    }
+
+    @Test
+    void testAdditionalDatabasesAndUsers() throws Exception {
+        try (FirebirdContainer container = new FirebirdContainer(FIREBIRD_TEST_IMAGE)
+                .withAdditionalUser("reporting", "reporting_pwd")
+                .withAdditionalDatabase("extra")
+                .withAdditionalDatabase(new DatabaseDefinition("orders")
+                        .withPageSize(16384)
+                        .withDefaultCharacterSet("UTF8")
+                        .withRole("REPORTER", "REPORTING"))) {
+            container.start();
+
+            assertTrue(container.getStartupTimings()
+                    .flatMap(timings -> timings.getDuration(StartupTimings.Phase.DATABASE_PROVISIONING))
+                    .isPresent(), "Expected duration for provisioning");
+            try (Connection connection = DriverManager.getConnection(container.getJdbcUrl("extra"),
+                    container.getUsername(), container.getPassword())) {
+                assertTrue(connection.isValid(1000), "Expected valid connection to extra database");
+            }
+            try (Connection connection = DriverManager.getConnection(container.getJdbcUrl("orders"),
+                    container.getUsername(), container.getPassword());
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("select MON$PAGE_SIZE, MON$OWNER, "
+                         + "(select trim(RDB$CHARACTER_SET_NAME) from RDB$DATABASE) from MON$DATABASE")) {
+                assertTrue(rs.next(), "Expected a row");
+                assertEquals(16384, rs.getInt(1), "Expected page size");
+                assertEquals(container.getUsername().toUpperCase(Locale.ROOT), rs.getString(2).trim(),
+                        "Expected owner");
+                assertEquals("UTF8", rs.getString(3), "Expected default character set");
+            }
+
+            Properties properties = new Properties();
+            properties.setProperty("user", "reporting");
+            properties.setProperty("password", "reporting_pwd");
+            properties.setProperty("roleName", "REPORTER");
+            try (Connection connection = DriverManager.getConnection(container.getJdbcUrl("orders"), properties);
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("select current_user, current_role from RDB$DATABASE")) {
+                assertTrue(rs.next(), "Expected a row");
+                assertEquals("REPORTING", rs.getString(1).trim(), "Expected user");
+                assertEquals("REPORTER", rs.getString(2).trim(), "Expected role");
+            }
+        }
+    }
+
+    @Test
+    void testDatabaseProperties() throws Exception {
+        try (FirebirdContainer container = new FirebirdContainer(PROJECT_TEST_IMAGE)
+                .withDatabasePageSize(16384)
+                .withDatabaseDefaultCharacterSet("UTF8")
+                .withDatabaseDialect(1)
+                .withForcedWrites(false)
+                .withSweepInterval(0)) {
+            container.start();
+
+            try (Connection connection = container.createConnection("");
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("select MON$PAGE_SIZE, MON$SQL_DIALECT, MON$FORCED_WRITES, "
+                         + "MON$SWEEP_INTERVAL, (select trim(RDB$CHARACTER_SET_NAME) from RDB$DATABASE) "
+                         + "from MON$DATABASE")) {
+                assertTrue(rs.next(), "Expected a row");
+                assertEquals(16384, rs.getInt(1), "Expected page size");
+                assertEquals(1, rs.getInt(2), "Expected SQL dialect");
+                assertEquals(0, rs.getInt(3), "Expected forced writes disabled");
+                assertEquals(0, rs.getInt(4), "Expected sweep interval");
+                assertEquals("UTF8", rs.getString(5), "Expected default character set");
+            }
+        }
+    }
+
+    @Test
+    void testWithDatabasePageSize_notSupportedForJacobAlbertyImage() {
+        try (FirebirdContainer container = new FirebirdContainer(JACOB_ALBERTY_TEST_IMAGE)
+                .withDatabasePageSize(16384)) {
+            assertThrows(ContainerLaunchException.class, container::start);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = InitScriptMode.class, names = { "FIREBIRD", "ISQL" })
+    void testWithInitScriptMode(InitScriptMode initScriptMode) throws Exception {
+        try (FirebirdContainer container = new FirebirdContainer(FIREBIRD_TEST_IMAGE)
+                .withInitScript("firebird_init.sql")
+                .withInitScriptMode(initScriptMode)) {
+            container.start();
+
+            assertTrue(container.getInitScriptTimings().containsKey("firebird_init.sql"),
+                    "Expected timing of init script");
+            try (Connection connection = container.createConnection("");
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("select name from init_test order by id")) {
+                for (String expectedName : new String[] { "one; with semicolon", "it's two", "three's", "four" }) {
+                    assertTrue(rs.next(), "Expected a row");
+                    assertEquals(expectedName, rs.getString(1));
+                }
+                assertFalse(rs.next(), "Expected no more rows");
+            }
+        }
+    }
+
+    @Test
+    void testWithInitScriptMode_firebirdRejectsSetTransaction() {
+        try (FirebirdContainer container = new FirebirdContainer(FIREBIRD_TEST_IMAGE)
+                .withInitScript("firebird_init_set_transaction.sql")
+                .withInitScriptMode(InitScriptMode.FIREBIRD)) {
+            assertThrows(ContainerLaunchException.class, container::start);
+        }
+    }
+
+    private static int countRows(Statement statement, String tableName) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("select count(*) from " + tableName)) {
+            assertTrue(rs.next(), "Expected a row");
+            return rs.getInt(1);
+        }
+    }
+
     static Stream<DockerImageName> defaultTestImages() {
         return Stream.of(FIREBIRD_TEST_IMAGE, JACOB_ALBERTY_TEST_IMAGE);
     }
@@ -0,0 +1,59 @@
+package org.firebirdsql.testcontainers;
+
+import org.firebirdsql.testcontainers.FirebirdScriptRunner.ScriptStatement;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for {@link FirebirdScriptRunner}, without a container.
+ */
+class FirebirdScriptRunnerTest {
+
+    @Test
+    void testParse_setTermWithLongerTerminator() {
+        List<ScriptStatement> statements = FirebirdScriptRunner.parse("create table t (id integer);\n"
+                + "SET TERM !! ;\n"
+                + "create procedure p as\n"
+                + "begin\n"
+                + "  delete from t;\n"
+                + "end!!\n"
+                + "SET TERM ; !!\n"
+                + "insert into t (id) values (1);\n");
+
+        assertEquals(3, statements.size());
+        assertStatement(statements.get(0), "create table t (id integer)", 1);
+        assertStatement(statements.get(1), "create procedure p as\nbegin\n  delete from t;\nend", 3);
+        assertStatement(statements.get(2), "insert into t (id) values (1)", 8);
+    }
+
+    @Test
+    void testParse_setTermWithoutWhitespaceAfterTerminator() {
+        List<ScriptStatement> statements = FirebirdScriptRunner.parse(
+                "SET TERM !! ;execute procedure p!!SET TERM ; !!commit;");
+
+        assertEquals(2, statements.size());
+        assertStatement(statements.get(0), "execute procedure p", 1);
+        assertStatement(statements.get(1), "commit", 1);
+    }
+
+    @Test
+    void testParse_setTermWithSingleCharacterTerminator() {
+        List<ScriptStatement> statements = FirebirdScriptRunner.parse("SET TERM ^ ;\n"
+                + "execute block as begin end^\n"
+                + "SET TERM ; ^\n"
+                + "\n"
+                + "commit;\n");
+
+        assertEquals(2, statements.size());
+        assertStatement(statements.get(0), "execute block as begin end", 2);
+        assertStatement(statements.get(1), "commit", 5);
+    }
+
+    private static void assertStatement(ScriptStatement statement, String expectedSql, int expectedLineNumber) {
+        assertEquals(expectedSql, statement.getSql());
+        assertEquals(expectedLineNumber, statement.getLineNumber(), "Line number of " + expectedSql);
+    }
+}
@@ -0,0 +1,56 @@
+package org.firebirdsql.testcontainers;
+
+import com.github.dockerjava.api.model.Frame;
+import com.github.dockerjava.api.model.StreamType;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Tests for {@link TraceSession}, with trace manager output which is not produced by a container.
+ */
+class TraceSessionTest {
+
+    private static final String FIRST_HEADER = "2025-01-01T10:00:00.0000 (123:0x7f0000000000) EXECUTE_STATEMENT_FINISH";
+    private static final String SECOND_HEADER = "2025-01-01T10:00:01.0000 (123:0x7f0000000000) CLOSE_CURSOR";
+
+    private final List<String> eventTypes = new ArrayList<>();
+    private final List<Boolean> lockHeld = new ArrayList<>();
+    private final List<Integer> stoppedSessions = new ArrayList<>();
+    private final TraceSession traceSession = new TraceSession(event -> {
+        eventTypes.add(event.getEventType());
+        lockHeld.add(Thread.holdsLock(getTraceSession()));
+    }, stoppedSessions::add);
+
+    @Test
+    void testEventsPassedToConsumerOutsideLock() {
+        output("Trace session ID 5 started\n");
+        traceSession.awaitStarted(Duration.ofSeconds(1));
+        output(FIRST_HEADER + "\n\tselect 1 from rdb$database\n\n" + SECOND_HEADER + "\n");
+        assertEquals(Collections.singletonList("EXECUTE_STATEMENT_FINISH"), eventTypes,
+                "Expected first event to be passed when the second event starts");
+
+        traceSession.getCallback().onComplete();
+        traceSession.close();
+
+        assertEquals(Arrays.asList("EXECUTE_STATEMENT_FINISH", "CLOSE_CURSOR"), eventTypes);
+        assertFalse(lockHeld.contains(true), "Expected consumer to be called without holding the lock of the session");
+        assertEquals(Collections.singletonList(5), stoppedSessions);
+    }
+
+    private TraceSession getTraceSession() {
+        return traceSession;
+    }
+
+    private void output(String text) {
+        traceSession.getCallback().onNext(new Frame(StreamType.STDOUT, text.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,24 @@
+-- Script in isql syntax, with isql-only commands and PSQL
+SET SQL DIALECT 3;
+SET NAMES UTF8;
+
+create table init_test (
+  id integer primary key,
+  name varchar(50)
+);
+
+SET TERM ^ ;
+create procedure add_init_test (id integer, name varchar(50))
+as
+begin
+  -- Statements in PSQL end with ; which must not split the procedure
+  insert into init_test (id, name) values (:id, :name);
+end^
+SET TERM ; ^
+
+insert into init_test (id, name) values (1, 'one; with semicolon');
+insert into init_test (id, name) values (2, 'it''s two');
+/* block comment; with semicolon */
+insert into init_test (id, name) values (3, q'{three's}');
+execute procedure add_init_test (4, 'four');
+commit;
@@ -0,0 +1,9 @@
+-- Script with an isql command which InitScriptMode.FIREBIRD cannot apply
+create table init_test (
+  id integer primary key,
+  name varchar(50)
+);
+
+SET TRANSACTION READ COMMITTED NO WAIT;
+insert into init_test (id, name) values (1, 'one');
+commit;
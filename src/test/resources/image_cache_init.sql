@@ -0,0 +1,2 @@
+create table image_cache_test (id integer);
+insert into image_cache_test (id) values (1);